@@ -0,0 +1,57 @@
+package ssb;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a dataset from json already parsed: the n-tuples and the cells
+ * (createNtuples and createCells), sequentially, in parallel, or lazily.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CellBuildBenchmark {
+
+	@Param({ "1x1x13x2", "10x20x30x4", "50x100x20x10" })
+	public String shape;
+
+	private Dataset ds;
+	private int parallelism;
+
+	@Setup
+	public void setUp() throws Exception {
+		String json = JsonStatGenerator.builder().sizes(JsonStatGenerator.parseSizes(shape)).build().generate();
+		ds = DatasetParser.DEFAULT.parse(json, null);
+		parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	@Benchmark
+	public SSBDataset eagerCells() {
+		return new SSBDataset(ds, false);
+	}
+
+	@Benchmark
+	public SSBDataset parallelCells() {
+		return new SSBDataset(ds, false, parallelism, null, null);
+	}
+
+	@Benchmark
+	public SSBDataset lazyCells() {
+		return new SSBDataset(ds, true);
+	}
+
+}
@@ -0,0 +1,80 @@
+package ssb;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing whole datasets out, as JSON-stat with and without gzip and as csv
+ * in long format, to a stream that only counts bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExportBenchmark {
+
+	@Param({ "1x1x13x2", "10x20x30x4", "50x100x20x10" })
+	public String shape;
+
+	private SSBDataset ds;
+	private ExportSpec longFormat;
+
+	@Setup
+	public void setUp() throws Exception {
+		int[] sizes = JsonStatGenerator.parseSizes(shape);
+		ds = SSBDataset.builder().lazyCells(true).build(JsonStatGenerator.builder().sizes(sizes).build().generate());
+		longFormat = ExportSpec.longFormat().build();
+	}
+
+	@Benchmark
+	public long jsonStat() throws SSBDatasetException {
+		CountingOutputStream out = new CountingOutputStream();
+		ds.writeJsonStat(out);
+		return out.count;
+	}
+
+	@Benchmark
+	public long jsonStatGzip() throws SSBDatasetException {
+		CountingOutputStream out = new CountingOutputStream();
+		ds.writeJsonStat(out, true);
+		return out.count;
+	}
+
+	@Benchmark
+	public long csvLongFormat() throws SSBDatasetException {
+		CountingOutputStream out = new CountingOutputStream();
+		ds.writeCsv(out, longFormat);
+		return out.count;
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) throws IOException {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count += len;
+		}
+	}
+
+}
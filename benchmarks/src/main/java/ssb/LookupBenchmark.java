@@ -0,0 +1,95 @@
+package ssb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading single values and labels, at random positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LookupBenchmark {
+
+	private static final int KEYS = 1 << 10;
+
+	@Param({ "1x1x13x2", "10x20x30x4", "50x100x20x10" })
+	public String shape;
+
+	private SSBDataset eager;
+	private SSBDataset lazy;
+	private List<List<Integer>> ntuples;
+	private int[][] coords;
+	private int dimensions;
+	private int next;
+
+	@Setup
+	public void setUp() throws Exception {
+		int[] sizes = JsonStatGenerator.parseSizes(shape);
+		String json = JsonStatGenerator.builder().sizes(sizes).build().generate();
+		eager = new SSBDataset(json);
+		lazy = SSBDataset.builder().lazyCells(true).build(json);
+
+		dimensions = sizes.length;
+		Random random = new Random(42);
+		ntuples = new ArrayList<>(KEYS);
+		coords = new int[KEYS][];
+		for (int k = 0; k < KEYS; k++) {
+			Integer[] ntuple = new Integer[sizes.length];
+			coords[k] = new int[sizes.length];
+			for (int d = 0; d < sizes.length; d++) {
+				coords[k][d] = random.nextInt(sizes[d]);
+				ntuple[d] = coords[k][d];
+			}
+			ntuples.add(Arrays.asList(ntuple));
+		}
+	}
+
+	private int nextKey() {
+		return next++ & (KEYS - 1);
+	}
+
+	@Benchmark
+	public int ntupleToIndex() {
+		return eager.ntupleToIndex(ntuples.get(nextKey()));
+	}
+
+	@Benchmark
+	public Cell cellsGetEager() {
+		return eager.cells().get(ntuples.get(nextKey()));
+	}
+
+	@Benchmark
+	public Cell cellsGetLazy() {
+		return lazy.cells().get(ntuples.get(nextKey()));
+	}
+
+	@Benchmark
+	public double valueAt() {
+		return eager.valueAt(coords[nextKey()]);
+	}
+
+	@Benchmark
+	public List<Object> dimensionCategoryLabels() {
+		return eager.getDimensionCategoryLabels(nextKey() % dimensions);
+	}
+
+}
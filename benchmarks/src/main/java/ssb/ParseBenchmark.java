@@ -0,0 +1,83 @@
+package ssb;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a dataset from json held in memory: the json parsing alone, then
+ * both constructors, then the builder with lazy cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParseBenchmark {
+
+	/** From the 26 cells of dataset 1052 to a million cells. */
+	@Param({ "1x1x13x2", "10x20x30x4", "50x100x20x10" })
+	public String shape;
+
+	private String json;
+	private Path file;
+	private URL url;
+	private SSBDatasetReader lazyReader;
+
+	@Setup
+	public void setUp() throws Exception {
+		json = JsonStatGenerator.builder().sizes(JsonStatGenerator.parseSizes(shape)).build().generate();
+		// the url constructor reads a file, from the page cache once warm
+		file = Files.createTempFile("ssb-benchmark", ".json");
+		Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+		url = file.toUri().toURL();
+		lazyReader = SSBDataset.builder().lazyCells(true).reader();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public Dataset parse() throws Exception {
+		return DatasetParser.DEFAULT.parse(json, null);
+	}
+
+	@Benchmark
+	public SSBDataset constructorString() throws SSBDatasetException {
+		return new SSBDataset(json);
+	}
+
+	@Benchmark
+	public SSBDataset constructorUrl() throws SSBDatasetException {
+		return new SSBDataset(url);
+	}
+
+	@Benchmark
+	public SSBDataset builderLazyCells() throws SSBDatasetException {
+		return SSBDataset.builder().lazyCells(true).build(json);
+	}
+
+	@Benchmark
+	public SSBDataset sharedReaderLazyCells() throws SSBDatasetException {
+		return lazyReader.read(json);
+	}
+
+}
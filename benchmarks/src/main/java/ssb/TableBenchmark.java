@@ -0,0 +1,67 @@
+package ssb;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building tables over the last two dimensions, with the default filters or
+ * with the last category of every other dimension.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TableBenchmark {
+
+	@Param({ "1x1x13x2", "10x20x30x4", "50x100x20x10" })
+	public String shape;
+
+	private SSBDataset ds;
+	private int rowDim;
+	private int colDim;
+	private Map<Integer, Integer> filters;
+
+	@Setup
+	public void setUp() throws Exception {
+		int[] sizes = JsonStatGenerator.parseSizes(shape);
+		ds = SSBDataset.builder().lazyCells(true).build(JsonStatGenerator.builder().sizes(sizes).build().generate());
+		rowDim = sizes.length - 2;
+		colDim = sizes.length - 1;
+		filters = new HashMap<>();
+		for (int d = 0; d < rowDim; d++) {
+			filters.put(d, sizes[d] - 1);
+		}
+	}
+
+	@Benchmark
+	public List<List<Object>> table() throws SSBDatasetException {
+		return ds.table(rowDim, colDim);
+	}
+
+	@Benchmark
+	public List<List<Object>> tableWithFilters() throws SSBDatasetException {
+		return ds.table(rowDim, colDim, filters);
+	}
+
+	@Benchmark
+	public TableResult tableResultWithFilters() throws SSBDatasetException {
+		return ds.tableResult(rowDim, colDim, filters);
+	}
+
+}
@@ -0,0 +1,195 @@
+package ssb;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Collapses dimensions of a value store.
+ *
+ * Each value of the result combines the values of the source that share the
+ * categories of the kept dimensions. The result is split into blocks of
+ * consecutive values which are computed on a {@link ForkJoinPool}; small
+ * aggregations run on the calling thread.
+ */
+final class Aggregation {
+
+	/** The number of source values below which a block is not split. */
+	static final int THRESHOLD = 1 << 15;
+
+	private final ValueStore values;
+	private final Aggregator aggregator;
+	private final int[] keptSizes;
+	private final int[] keptStrides;
+	private final int[] collapsedSizes;
+	private final int[] collapsedStrides;
+	private final int collapsedCount;
+
+	private final double[] result;
+	private final boolean[] decimals;
+
+	/**
+	 * Instantiates a new aggregation.
+	 *
+	 * @param values
+	 *            the source values
+	 * @param sizes
+	 *            the dimensions sizes of the source
+	 * @param strides
+	 *            the dimensions strides of the source
+	 * @param collapsed
+	 *            the dimensions to collapse
+	 * @param aggregator
+	 *            how values are combined
+	 */
+	Aggregation(ValueStore values, int[] sizes, int[] strides, BitSet collapsed, Aggregator aggregator) {
+		this.values = values;
+		this.aggregator = aggregator;
+		int nCollapsed = collapsed.cardinality();
+		keptSizes = new int[sizes.length - nCollapsed];
+		keptStrides = new int[keptSizes.length];
+		collapsedSizes = new int[nCollapsed];
+		collapsedStrides = new int[nCollapsed];
+		int resultSize = 1;
+		int count = 1;
+		for (int i = 0, k = 0, c = 0; i < sizes.length; i++) {
+			if (collapsed.get(i)) {
+				collapsedSizes[c] = sizes[i];
+				collapsedStrides[c++] = strides[i];
+				count *= sizes[i];
+			} else {
+				keptSizes[k] = sizes[i];
+				keptStrides[k++] = strides[i];
+				resultSize *= sizes[i];
+			}
+		}
+		collapsedCount = count;
+		result = new double[resultSize];
+		decimals = new boolean[resultSize];
+	}
+
+	/**
+	 * Runs the aggregation.
+	 *
+	 * @return the values of the result
+	 */
+	ValueStore run() {
+		Block block = new Block(0, result.length);
+		if ((long) result.length * collapsedCount <= THRESHOLD) {
+			block.compute();
+		} else {
+			ForkJoinPool.commonPool().invoke(block);
+		}
+
+		BitSet missing = new BitSet(result.length);
+		BitSet decimalBits = new BitSet(result.length);
+		for (int i = 0; i < result.length; i++) {
+			if (Double.isNaN(result[i])) {
+				missing.set(i);
+			}
+			if (decimals[i]) {
+				decimalBits.set(i);
+			}
+		}
+		return ArrayValueStore.of(result, missing, decimalBits);
+	}
+
+	// combines the source values of the result values in [from, to)
+	private void aggregate(int from, int to) {
+		int[] kept = new int[keptSizes.length];
+		int[] collapsed = new int[collapsedSizes.length];
+
+		// coordinates of the first result value
+		int rest = from;
+		for (int i = kept.length - 1; i >= 0; i--) {
+			kept[i] = rest % keptSizes[i];
+			rest /= keptSizes[i];
+		}
+
+		for (int index = from; index < to; index++) {
+			int base = 0;
+			for (int i = 0; i < kept.length; i++) {
+				base += kept[i] * keptStrides[i];
+			}
+
+			double sum = 0;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			int count = 0;
+			boolean decimal = false;
+			int offset = 0;
+			for (int n = 0; n < collapsedCount; n++) {
+				int sourceIndex = base + offset;
+				if (!values.isMissing(sourceIndex)) {
+					double value = values.get(sourceIndex);
+					sum += value;
+					min = Math.min(min, value);
+					max = Math.max(max, value);
+					count++;
+					decimal |= values.isDecimal(sourceIndex);
+				}
+				// next combination of the collapsed dimensions
+				for (int i = collapsed.length - 1; i >= 0; i--) {
+					offset += collapsedStrides[i];
+					if (++collapsed[i] < collapsedSizes[i]) {
+						break;
+					}
+					offset -= collapsed[i] * collapsedStrides[i];
+					collapsed[i] = 0;
+				}
+			}
+
+			switch (aggregator) {
+			case SUM:
+				result[index] = count > 0 ? sum : Double.NaN;
+				break;
+			case MEAN:
+				result[index] = count > 0 ? sum / count : Double.NaN;
+				decimal = true;
+				break;
+			case MIN:
+				result[index] = count > 0 ? min : Double.NaN;
+				break;
+			case MAX:
+				result[index] = count > 0 ? max : Double.NaN;
+				break;
+			default:
+				result[index] = count;
+				decimal = false;
+			}
+			decimals[index] = decimal;
+
+			// next combination of the kept dimensions
+			for (int i = kept.length - 1; i >= 0; i--) {
+				if (++kept[i] < keptSizes[i]) {
+					break;
+				}
+				kept[i] = 0;
+			}
+		}
+	}
+
+	private final class Block extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+
+		Block(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1 || (long) (to - from) * collapsedCount <= THRESHOLD) {
+				aggregate(from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Block(from, middle), new Block(middle, to));
+			}
+		}
+	}
+
+}
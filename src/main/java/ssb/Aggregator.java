@@ -0,0 +1,32 @@
+package ssb;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         Tells how values are combined when dimensions are collapsed, see
+ *         {@link ssb.SSBDataset#aggregate(java.util.Set, Aggregator)}.
+ *         Missing values are skipped.
+ */
+public enum Aggregator {
+
+	/** The sum of the values. */
+	SUM,
+
+	/** The mean of the values. */
+	MEAN,
+
+	/** The smallest value. */
+	MIN,
+
+	/** The largest value. */
+	MAX,
+
+	/** The number of values that are not missing. */
+	COUNT;
+
+}
@@ -0,0 +1,131 @@
+package ssb;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Appends the categories of one dimension read from a newer dataset to the
+ * values of a dataset.
+ *
+ * Values are laid out with the last dimension moving fastest, so unless the
+ * grown dimension comes first the new categories are interleaved with the
+ * old ones. The result is written as runs of consecutive values, one run per
+ * category of the grown dimension and combination of the dimensions before
+ * it, copied from the newer values when the newer dataset has the category
+ * and from the older values otherwise. Statuses are sparse and mapped one by
+ * one.
+ */
+final class Append {
+
+	private final ValueStore older;
+	private final ValueStore newer;
+	private final int olderCount;
+	private final int newerCount;
+
+	/** The category of the result for each category of the newer values. */
+	private final int[] newerCategories;
+
+	/** The category of the newer values for each category of the result, or -1. */
+	private final int[] sources;
+
+	/** The number of combinations of the dimensions before the grown one. */
+	private final int outer;
+
+	/** The stride of the grown dimension: the length of a run. */
+	private final int run;
+
+	/**
+	 * Instantiates a new append.
+	 *
+	 * @param older
+	 *            the older values
+	 * @param olderCount
+	 *            the number of categories of the grown dimension in the older
+	 *            values, which keep their positions in the result
+	 * @param newer
+	 *            the newer values
+	 * @param newerCategories
+	 *            the category of the result for each category of the grown
+	 *            dimension in the newer values
+	 * @param resultCount
+	 *            the number of categories of the grown dimension in the result
+	 * @param outer
+	 *            the number of combinations of the dimensions before the grown
+	 *            one
+	 * @param run
+	 *            the stride of the grown dimension
+	 */
+	Append(ValueStore older, int olderCount, ValueStore newer, int[] newerCategories, int resultCount, int outer,
+			int run) {
+		this.older = older;
+		this.newer = newer;
+		this.olderCount = olderCount;
+		this.newerCount = newerCategories.length;
+		this.newerCategories = newerCategories;
+		this.sources = new int[resultCount];
+		Arrays.fill(sources, -1);
+		for (int i = 0; i < newerCategories.length; i++) {
+			sources[newerCategories[i]] = i;
+		}
+		this.outer = outer;
+		this.run = run;
+	}
+
+	/**
+	 * Runs the append.
+	 *
+	 * @param storage
+	 *            where the values of the result are stored
+	 * @return the values of the result
+	 * @throws IOException
+	 *             if the storage cannot be allocated
+	 */
+	ValueStore run(ValueStorage storage) throws IOException {
+		ValueStore.Builder values = storage.builder(outer * sources.length * run);
+		try {
+			for (int o = 0; o < outer; o++) {
+				for (int c = 0; c < sources.length; c++) {
+					if (sources[c] >= 0) {
+						copy(newer, (o * newerCount + sources[c]) * run, values);
+					} else {
+						copy(older, (o * olderCount + c) * run, values);
+					}
+				}
+			}
+
+			SortedMap<Integer, Object> status = new TreeMap<>();
+			older.forEachStatus((value, index) -> {
+				int c = index / run % olderCount;
+				if (sources[c] < 0) {
+					status.put(resultIndex(index, olderCount, c), value);
+				}
+			});
+			newer.forEachStatus((value, index) -> status.put(
+					resultIndex(index, newerCount, newerCategories[index / run % newerCount]), value));
+			return values.build(status);
+		} catch (IOException | RuntimeException e) {
+			values.discard();
+			throw e;
+		}
+	}
+
+	private void copy(ValueStore from, int start, ValueStore.Builder to) {
+		for (int index = start, end = start + run; index < end; index++) {
+			if (from.isMissing(index)) {
+				to.addMissing();
+			} else {
+				to.add(from.get(index), from.isDecimal(index));
+			}
+		}
+	}
+
+	// the index in the result of a value of a source having count categories
+	// in the grown dimension, its category being c in the result
+	private int resultIndex(int index, int count, int c) {
+		int o = index / run / count;
+		return (o * sources.length + c) * run + index % run;
+	}
+
+}
@@ -0,0 +1,149 @@
+package ssb;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Holds the values of a dataset in a double[], in the order of the json
+ * 'value' array.
+ *
+ * Two bitmaps tell which values are missing (null in the json) and which were
+ * written as decimals. Statuses are kept in a sparse table of sorted indexes.
+ */
+final class ArrayValueStore extends ValueStore {
+
+	private final double[] values;
+	private final BitSet missing;
+	private final BitSet decimals;
+	private final int[] statusIndexes;
+	private final Object[] statusValues;
+
+	private ArrayValueStore(double[] values, BitSet missing, BitSet decimals, int[] statusIndexes,
+			Object[] statusValues) {
+		this.values = values;
+		this.missing = missing;
+		this.decimals = decimals;
+		this.statusIndexes = statusIndexes;
+		this.statusValues = statusValues;
+	}
+
+	/**
+	 * Creates a store with no statuses.
+	 *
+	 * @param values
+	 *            the values, NaN if missing
+	 * @param missing
+	 *            the missing values
+	 * @param decimals
+	 *            the values written as decimals
+	 * @return the store
+	 */
+	static ArrayValueStore of(double[] values, BitSet missing, BitSet decimals) {
+		return new ArrayValueStore(values, missing, decimals, new int[0], new Object[0]);
+	}
+
+	@Override
+	int size() {
+		return values.length;
+	}
+
+	@Override
+	double get(int index) {
+		return values[index];
+	}
+
+	@Override
+	boolean isMissing(int index) {
+		return missing.get(index);
+	}
+
+	@Override
+	boolean isDecimal(int index) {
+		return decimals.get(index);
+	}
+
+	@Override
+	Object status(int index) {
+		int i = Arrays.binarySearch(statusIndexes, index);
+		return i >= 0 ? statusValues[i] : null;
+	}
+
+	@Override
+	void forEachStatus(ObjIntConsumer<Object> action) {
+		for (int i = 0; i < statusIndexes.length; i++) {
+			action.accept(statusValues[i], statusIndexes[i]);
+		}
+	}
+
+	// the arrays, the bitmaps, and a short String per status
+	@Override
+	long estimatedBytes() {
+		return 8L * values.length + (missing.size() + decimals.size()) / 8 + 56L * statusIndexes.length + 64;
+	}
+
+	@Override
+	ValueStorage storage() {
+		return ValueStorage.HEAP;
+	}
+
+	/**
+	 * Appends values to a double[], growing it when needed.
+	 */
+	static final class Builder extends ValueStore.Builder {
+
+		private double[] values;
+		private final BitSet missing = new BitSet();
+		private final BitSet decimals = new BitSet();
+		private int size;
+
+		/**
+		 * Instantiates a new builder.
+		 *
+		 * @param capacity
+		 *            the expected number of values
+		 */
+		Builder(int capacity) {
+			values = new double[Math.max(capacity, 16)];
+		}
+
+		@Override
+		void add(double value, boolean decimal) {
+			ensureCapacity();
+			if (decimal) {
+				decimals.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		void addMissing() {
+			ensureCapacity();
+			missing.set(size);
+			values[size++] = Double.NaN;
+		}
+
+		@Override
+		ArrayValueStore build(SortedMap<Integer, Object> status) {
+			int[] statusIndexes = new int[status.size()];
+			Object[] statusValues = new Object[status.size()];
+			int i = 0;
+			for (Map.Entry<Integer, Object> entry : status.entrySet()) {
+				statusIndexes[i] = entry.getKey();
+				statusValues[i] = entry.getValue();
+				i++;
+			}
+			double[] trimmed = size == values.length ? values : Arrays.copyOf(values, size);
+			return new ArrayValueStore(trimmed, missing, decimals, statusIndexes, statusValues);
+		}
+
+		private void ensureCapacity() {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,315 @@
+package ssb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Holds the values of a dataset outside of the heap, in direct buffers or in
+ * buffers mapped from a file.
+ *
+ * The values are split in chunks of {@value #CHUNK_SIZE} doubles so that a
+ * store is not limited by the 2 GB capacity of a single buffer. Two bitmaps,
+ * as words of 64 bits, tell which values are missing and which were written
+ * as decimals. Statuses are kept on the heap in a sparse table of sorted
+ * indexes.
+ */
+final class BufferValueStore extends ValueStore {
+
+	/** The number of bits of a chunk index. */
+	static final int CHUNK_SHIFT = 27;
+
+	/** The number of values in a chunk. */
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final DoubleBuffer[] chunks;
+	private final int size;
+	private final LongBuffer missing;
+	private final LongBuffer decimals;
+	private final int[] statusIndexes;
+	private final Object[] statusValues;
+	private final boolean mapped;
+
+	/**
+	 * Instantiates a new buffer value store.
+	 *
+	 * @param chunks
+	 *            the values, all chunks but the last holding
+	 *            {@value #CHUNK_SIZE} values
+	 * @param size
+	 *            the number of values
+	 * @param missing
+	 *            the bitmap of the missing values
+	 * @param decimals
+	 *            the bitmap of the values written as decimals
+	 * @param statusIndexes
+	 *            the indexes of the values having a status, sorted
+	 * @param statusValues
+	 *            the statuses, in the order of the indexes
+	 * @param mapped
+	 *            true if the buffers are mapped from a file, false if they
+	 *            are direct buffers
+	 */
+	BufferValueStore(DoubleBuffer[] chunks, int size, LongBuffer missing, LongBuffer decimals, int[] statusIndexes,
+			Object[] statusValues, boolean mapped) {
+		this.chunks = chunks;
+		this.size = size;
+		this.missing = missing;
+		this.decimals = decimals;
+		this.statusIndexes = statusIndexes;
+		this.statusValues = statusValues;
+		this.mapped = mapped;
+	}
+
+	/**
+	 * Gets the number of chunks needed for some values.
+	 *
+	 * @param size
+	 *            the number of values
+	 * @return the number of chunks
+	 */
+	static int chunkCount(int size) {
+		return (int) (((long) size + CHUNK_MASK) >>> CHUNK_SHIFT);
+	}
+
+	/**
+	 * Gets the number of 64 bits words of a bitmap.
+	 *
+	 * @param size
+	 *            the number of values
+	 * @return the number of words
+	 */
+	static int wordCount(int size) {
+		return (int) (((long) size + 63) >>> 6);
+	}
+
+	@Override
+	int size() {
+		return size;
+	}
+
+	@Override
+	double get(int index) {
+		return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+	}
+
+	@Override
+	boolean isMissing(int index) {
+		return bit(missing, index);
+	}
+
+	@Override
+	boolean isDecimal(int index) {
+		return bit(decimals, index);
+	}
+
+	@Override
+	Object status(int index) {
+		int i = Arrays.binarySearch(statusIndexes, index);
+		return i >= 0 ? statusValues[i] : null;
+	}
+
+	@Override
+	void forEachStatus(ObjIntConsumer<Object> action) {
+		for (int i = 0; i < statusIndexes.length; i++) {
+			action.accept(statusValues[i], statusIndexes[i]);
+		}
+	}
+
+	// the statuses, and the direct buffers: mapped pages can be dropped by
+	// the system at any time
+	@Override
+	long estimatedBytes() {
+		long bytes = 56L * statusIndexes.length + 16L * chunks.length + 64;
+		if (!mapped) {
+			for (DoubleBuffer chunk : chunks) {
+				bytes += 8L * chunk.capacity();
+			}
+			bytes += 8L * (missing.capacity() + decimals.capacity());
+		}
+		return bytes;
+	}
+
+	@Override
+	ValueStorage storage() {
+		return mapped ? ValueStorage.MAPPED : ValueStorage.DIRECT;
+	}
+
+	private static boolean bit(LongBuffer bitmap, int index) {
+		return (bitmap.get(index >>> 6) & (1L << index)) != 0;
+	}
+
+	/**
+	 * Appends values to chunks of direct or mapped buffers.
+	 *
+	 * A chunk starts at the expected size of the values, at most
+	 * {@value #CHUNK_SIZE} values, and doubles when full until it reaches that
+	 * size; then a new chunk starts. A mapped chunk grows by mapping a larger
+	 * region of the same file, without copying.
+	 */
+	static final class Builder extends ValueStore.Builder {
+
+		private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+		/** The temp file holding the values, null for direct buffers. */
+		private final FileChannel channel;
+		private final List<DoubleBuffer> chunks = new ArrayList<>();
+		private final BitSet missing = new BitSet();
+		private final BitSet decimals = new BitSet();
+		private final int capacity;
+		private DoubleBuffer chunk;
+		private int size;
+
+		private Builder(FileChannel channel, int capacity) {
+			this.channel = channel;
+			this.capacity = capacity;
+		}
+
+		/**
+		 * Creates a builder storing the values in direct buffers.
+		 *
+		 * @param capacity
+		 *            the expected number of values
+		 * @return the builder
+		 */
+		static Builder direct(int capacity) {
+			return new Builder(null, capacity);
+		}
+
+		/**
+		 * Creates a builder storing the values in a temp file, mapped in
+		 * memory. The file is deleted once the store is built.
+		 *
+		 * @param capacity
+		 *            the expected number of values
+		 * @return the builder
+		 * @throws IOException
+		 *             if the temp file cannot be created
+		 */
+		static Builder mapped(int capacity) throws IOException {
+			Path temp = Files.createTempFile("ssb-values", ".tmp");
+			try {
+				return new Builder(FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+						StandardOpenOption.DELETE_ON_CLOSE), capacity);
+			} catch (IOException e) {
+				Files.deleteIfExists(temp);
+				throw e;
+			}
+		}
+
+		@Override
+		void add(double value, boolean decimal) {
+			ensureCapacity();
+			if (decimal) {
+				decimals.set(size);
+			}
+			chunk.put(value);
+			size++;
+		}
+
+		@Override
+		void addMissing() {
+			ensureCapacity();
+			missing.set(size);
+			chunk.put(Double.NaN);
+			size++;
+		}
+
+		@Override
+		BufferValueStore build(SortedMap<Integer, Object> status) throws IOException {
+			try {
+				int[] statusIndexes = new int[status.size()];
+				Object[] statusValues = new Object[status.size()];
+				int i = 0;
+				for (Map.Entry<Integer, Object> entry : status.entrySet()) {
+					statusIndexes[i] = entry.getKey();
+					statusValues[i] = entry.getValue();
+					i++;
+				}
+				// the bitmaps go right after the last value, over the unused
+				// end of the last chunk: no value is written there any more
+				long offset = (long) size * Double.BYTES;
+				int words = wordCount(size);
+				LongBuffer missingWords = allocate(offset, words).asLongBuffer();
+				missingWords.put(missing.toLongArray());
+				LongBuffer decimalWords = allocate(offset + (long) words * Long.BYTES, words).asLongBuffer();
+				decimalWords.put(decimals.toLongArray());
+				return new BufferValueStore(chunks.toArray(new DoubleBuffer[chunks.size()]), size, missingWords,
+						decimalWords, statusIndexes, statusValues, channel != null);
+			} finally {
+				discard();
+			}
+		}
+
+		// a mapping stays valid once its file is closed
+		@Override
+		void discard() {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					// nothing to do
+				}
+			}
+		}
+
+		private void ensureCapacity() {
+			if (chunk != null && chunk.hasRemaining()) {
+				return;
+			}
+			if (chunk != null && chunk.capacity() < CHUNK_SIZE) {
+				// grow the last chunk
+				int chunkSize = (int) Math.min(CHUNK_SIZE, 2L * chunk.capacity());
+				DoubleBuffer grown = allocate(chunkOffset(chunks.size() - 1), chunkSize).asDoubleBuffer();
+				if (channel == null) {
+					chunk.flip();
+					grown.put(chunk);
+				} else {
+					grown.position(chunk.position());
+				}
+				chunk = grown;
+				chunks.set(chunks.size() - 1, chunk);
+			} else {
+				int chunkSize = Math.min(CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, capacity - size));
+				chunk = allocate(chunkOffset(chunks.size()), chunkSize).asDoubleBuffer();
+				chunks.add(chunk);
+			}
+		}
+
+		private static long chunkOffset(int chunkIndex) {
+			return (long) chunkIndex * CHUNK_SIZE * Double.BYTES;
+		}
+
+		// count values of 8 bytes, at an offset of the file when mapped
+		private ByteBuffer allocate(long offset, int count) {
+			ByteBuffer buffer;
+			if (channel == null) {
+				buffer = ByteBuffer.allocateDirect(count * 8);
+			} else {
+				try {
+					buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, (long) count * 8);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return buffer.order(ByteOrder.nativeOrder());
+		}
+	}
+
+}
@@ -0,0 +1,84 @@
+package ssb;
+
+import java.util.Map;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         A category of a {@link ssb.Dimension Dimension}, resolved when the
+ *         dataset is loaded. Immutable.
+ */
+public final class Category {
+
+	private final int index;
+	private final String code;
+	private final String label;
+	private final Map<String, Object> unit;
+
+	/**
+	 * Instantiates a new category.
+	 *
+	 * @param index
+	 *            the position of the category in its dimension
+	 * @param code
+	 *            the code, null if the dimension has none
+	 * @param label
+	 *            the label, null if the dimension has none
+	 * @param unit
+	 *            the unit, null if none
+	 */
+	Category(int index, String code, String label, Map<String, Object> unit) {
+		this.index = index;
+		this.code = code;
+		this.label = label;
+		this.unit = unit;
+	}
+
+	/**
+	 * Gets the position of this category in its dimension.
+	 *
+	 * @return the category index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the code of this category, the key of 'category.index'.
+	 *
+	 * @return the code, null if the dimension has none
+	 */
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * Gets the label of this category.
+	 *
+	 * @return the label, null if the dimension has none
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Gets the unit of this category, as in the json: for instance
+	 * {base=per cent, decimals=1}.
+	 *
+	 * @return the unit, read-only, null if none
+	 */
+	public Map<String, Object> getUnit() {
+		return unit;
+	}
+
+	@Override
+	public String toString() {
+		return code + "=" + label;
+	}
+
+}
@@ -1,6 +1,7 @@
 package ssb;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 
@@ -42,10 +43,30 @@ public class Cell {
 	/**
 	 * Gets the value in this cell
 	 *
+	 * A value written as a string in the json is a Double if the string is a
+	 * number, null otherwise.
+	 *
 	 * @return the value in this cell
 	 */
 	public Object getValue() {
 		return value;
 	}
 
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Cell)) {
+			return false;
+		}
+		Cell other = (Cell) obj;
+		return Objects.equals(labels, other.labels) && Objects.equals(value, other.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(labels, value);
+	}
+
 }
@@ -0,0 +1,133 @@
+package ssb;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only, virtual view of the cells of a dataset.
+ *
+ * Nothing is stored per cell: {@link #get(Object)} turns the n-tuple into the
+ * linear index of the value and builds the {@link ssb.Cell Cell} on demand.
+ * Iteration walks the values in storage order.
+ */
+final class CellMap extends AbstractMap<List<Integer>, Cell> {
+
+	private final SSBDataset ds;
+	private final int size;
+	private Set<Map.Entry<List<Integer>, Cell>> entrySet;
+
+	/**
+	 * Instantiates a new cell map.
+	 *
+	 * @param ds
+	 *            the dataset holding the values
+	 */
+	CellMap(SSBDataset ds) {
+		this.ds = ds;
+		int size = 1;
+		for (int dimSize : ds.getDimensionsSizes()) {
+			size *= dimSize;
+		}
+		this.size = size;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public Cell get(Object key) {
+		int index = indexOf(key);
+		return index < 0 ? null : ds.createCell(index);
+	}
+
+	@Override
+	public Set<Map.Entry<List<Integer>, Cell>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Map.Entry<List<Integer>, Cell>>() {
+
+				@Override
+				public Iterator<Map.Entry<List<Integer>, Cell>> iterator() {
+					return new EntryIterator();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+		return entrySet;
+	}
+
+	// the index of the value of a key holding one category index per
+	// dimension, each within the size of its dimension; -1 for any other key
+	private int indexOf(Object key) {
+		if (!(key instanceof List)) {
+			return -1;
+		}
+		List<?> ntuple = (List<?>) key;
+		List<Dimension> dimensions = ds.dimensions();
+		if (ntuple.size() != dimensions.size()) {
+			return -1;
+		}
+		int index = 0;
+		for (int i = 0; i < ntuple.size(); i++) {
+			Object catIndex = ntuple.get(i);
+			Dimension dimension = dimensions.get(i);
+			if (!(catIndex instanceof Integer) || (Integer) catIndex < 0 || (Integer) catIndex >= dimension.getSize()) {
+				return -1;
+			}
+			index += (Integer) catIndex * dimension.getStride();
+		}
+		return index;
+	}
+
+	private final class EntryIterator implements Iterator<Map.Entry<List<Integer>, Cell>> {
+
+		private final int[] sizes = ds.getDimensionsSizes().stream().mapToInt(Integer::intValue).toArray();
+		private final Integer[] ntuple = new Integer[sizes.length];
+		private int index;
+
+		EntryIterator() {
+			Arrays.fill(ntuple, 0);
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < size;
+		}
+
+		@Override
+		public Map.Entry<List<Integer>, Cell> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			List<Integer> key = Collections.unmodifiableList(Arrays.asList(ntuple.clone()));
+			Cell cell = ds.createCell(index++);
+			// row-major order: the last dimension varies fastest
+			for (int i = sizes.length - 1; i >= 0; i--) {
+				if (ntuple[i] + 1 < sizes[i]) {
+					ntuple[i] = ntuple[i] + 1;
+					break;
+				}
+				ntuple[i] = 0;
+			}
+			return new SimpleImmutableEntry<>(key, cell);
+		}
+	}
+
+}
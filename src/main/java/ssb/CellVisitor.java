@@ -0,0 +1,31 @@
+package ssb;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         Visits the values of a dataset, see
+ *         {@link ssb.SSBDataset#forEachCell(CellVisitor)}
+ */
+@FunctionalInterface
+public interface CellVisitor {
+
+	/**
+	 * Visits a value.
+	 *
+	 * @param coords
+	 *            the index of the category in each dimension. The array is
+	 *            reused from one value to the next: it must not be modified nor
+	 *            kept after this call.
+	 * @param value
+	 *            the value, NaN if missing
+	 * @param missing
+	 *            true if the value is missing
+	 */
+	void visit(int[] coords, double value, boolean missing);
+
+}
@@ -0,0 +1,116 @@
+package ssb;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Reads values by category codes over a fixed list of dimensions, see
+ *         {@link ssb.SSBDataset#resolver(List, java.util.Map)}.
+ *
+ *         The dimensions and the offset of the fixed categories are resolved
+ *         once, when the resolver is created; a query then costs one hash
+ *         lookup per code. A resolver is immutable and can be shared by
+ *         threads.
+ *
+ *         <pre>
+ * CoordinateResolver resolver = ds.resolver("Tid", "ContentsCode");
+ * double rate = resolver.valueAt("2015M08", "Arbeidslause4"); // 4.6
+ *         </pre>
+ */
+public final class CoordinateResolver {
+
+	private final ValueStore values;
+	private final Dimension[] dimensions;
+	private final List<String> dimIds;
+	private final int base;
+
+	/**
+	 * Instantiates a new coordinate resolver.
+	 *
+	 * @param values
+	 *            the values of the dataset
+	 * @param dimensions
+	 *            the dimensions given by each query, in the order of the codes
+	 * @param base
+	 *            the position of the value at the first category of these
+	 *            dimensions
+	 */
+	CoordinateResolver(ValueStore values, Dimension[] dimensions, int base) {
+		this.values = values;
+		this.dimensions = dimensions;
+		String[] ids = new String[dimensions.length];
+		for (int i = 0; i < dimensions.length; i++) {
+			ids[i] = dimensions[i].getId();
+		}
+		this.dimIds = Collections.unmodifiableList(Arrays.asList(ids));
+		this.base = base;
+	}
+
+	/**
+	 * Gets the ids of the dimensions given by each query, in order.
+	 *
+	 * @return the dimensions ids
+	 */
+	public List<String> getDimensionsIds() {
+		return dimIds;
+	}
+
+	/**
+	 * Gets the position of a value in the values of the dataset.
+	 *
+	 * @param codes
+	 *            the category code in each dimension of this resolver
+	 * @return the position of the value
+	 * @throws IllegalArgumentException
+	 *             if the number of codes is wrong or a code is unknown
+	 */
+	public int indexOf(String... codes) {
+		if (codes.length != dimensions.length) {
+			throw new IllegalArgumentException("Expected " + dimensions.length + " codes, got " + codes.length);
+		}
+		int index = base;
+		for (int i = 0; i < codes.length; i++) {
+			int catIndex = dimensions[i].getCategoryIndex(codes[i]);
+			if (catIndex < 0) {
+				throw new IllegalArgumentException("No category " + codes[i] + " in dimension " + dimIds.get(i));
+			}
+			index += catIndex * dimensions[i].getStride();
+		}
+		return index;
+	}
+
+	/**
+	 * Gets a value as a primitive, without boxing.
+	 *
+	 * @param codes
+	 *            the category code in each dimension of this resolver
+	 * @return the value, NaN if the value is missing
+	 * @throws IllegalArgumentException
+	 *             if the number of codes is wrong or a code is unknown
+	 */
+	public double valueAt(String... codes) {
+		return values.get(indexOf(codes));
+	}
+
+	/**
+	 * Checks if a value is missing.
+	 *
+	 * @param codes
+	 *            the category code in each dimension of this resolver
+	 * @return true if the value is missing
+	 * @throws IllegalArgumentException
+	 *             if the number of codes is wrong or a code is unknown
+	 */
+	public boolean isMissing(String... codes) {
+		return values.isMissing(indexOf(codes));
+	}
+
+}
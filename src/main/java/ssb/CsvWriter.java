@@ -0,0 +1,241 @@
+package ssb;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a dataset as csv, as described by an {@link ExportSpec}.
+ *
+ * Values are read straight from the value store and written row by row into
+ * a reusable buffer, handed to the writer each time it fills up: memory does
+ * not grow with the size of the export. Fields holding the delimiter, a quote
+ * or a line break are quoted as in RFC 4180, and rows end with CRLF.
+ */
+final class CsvWriter {
+
+	private static final int BUFFER_SIZE = 1 << 13;
+
+	private final Writer out;
+	private final char delimiter;
+	private final ValueFormatter formatter;
+	private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 256);
+	private final char[] chunk = new char[BUFFER_SIZE];
+	private boolean rowStarted;
+
+	private CsvWriter(Writer out, ExportSpec spec) {
+		this.out = out;
+		this.delimiter = spec.getDelimiter();
+		this.formatter = spec.getFormatter();
+	}
+
+	/**
+	 * Writes a dataset. The writer is flushed, not closed.
+	 *
+	 * @param ds
+	 *            the dataset
+	 * @param spec
+	 *            the export, with valid dimensions and filters
+	 * @param out
+	 *            the writer
+	 * @throws IOException
+	 *             if the writer fails
+	 */
+	static void write(SSBDataset ds, ExportSpec spec, Writer out) throws IOException {
+		CsvWriter csv = new CsvWriter(out, spec);
+		List<Dimension> dimensions = ds.dimensions();
+		ValueStore values = ds.getDs().getValues();
+
+		// 1st category by default for the dimensions that are not filtered
+		int base = 0;
+		for (Map.Entry<Integer, Integer> filter : spec.getFilters().entrySet()) {
+			base += filter.getValue() * dimensions.get(filter.getKey()).getStride();
+		}
+
+		if (spec.isPivot()) {
+			csv.writePivot(spec, dimensions.get(spec.getRowDimIndex()), dimensions.get(spec.getColDimIndex()), values,
+					base);
+		} else {
+			List<Dimension> free = new ArrayList<>();
+			for (Dimension dimension : dimensions) {
+				if (!spec.getFilters().containsKey(dimension.getIndex())) {
+					free.add(dimension);
+				}
+			}
+			csv.writeLong(spec, free.toArray(new Dimension[free.size()]), values, base);
+		}
+		csv.flush();
+		out.flush();
+	}
+
+	private void writePivot(ExportSpec spec, Dimension row, Dimension col, ValueStore values, int base)
+			throws IOException {
+		boolean labels = spec.isLabels();
+		if (spec.isHeader()) {
+			field(labels && row.getLabel() != null ? row.getLabel() : row.getId());
+			for (int j = 0; j < col.getSize(); j++) {
+				field(category(col, j, labels));
+			}
+			endRow();
+		}
+		int rowStride = row.getStride();
+		int colStride = col.getStride();
+		for (int i = 0; i < row.getSize(); i++) {
+			field(category(row, i, labels));
+			int index = base + i * rowStride;
+			for (int j = 0; j < col.getSize(); j++, index += colStride) {
+				if (values.isMissing(index)) {
+					Object status = values.status(index);
+					field(status != null ? status.toString() : null);
+				} else {
+					value(values.get(index));
+				}
+			}
+			endRow();
+		}
+	}
+
+	private void writeLong(ExportSpec spec, Dimension[] free, ValueStore values, int base) throws IOException {
+		boolean codes = spec.isCodes();
+		boolean labels = spec.isLabels();
+		if (spec.isHeader()) {
+			for (Dimension dimension : free) {
+				if (codes) {
+					field(dimension.getId());
+				}
+				if (labels) {
+					field(codes ? dimension.getId() + "_label" : dimension.getId());
+				}
+			}
+			field("value");
+			field("status");
+			endRow();
+		}
+		for (Dimension dimension : free) {
+			if (dimension.getSize() == 0) {
+				return;
+			}
+		}
+
+		// odometer over the dimensions that are not filtered, the last one
+		// moving fastest: without filters the values are read in order
+		int[] coords = new int[free.length];
+		int index = base;
+		while (true) {
+			for (int k = 0; k < free.length; k++) {
+				if (codes) {
+					field(free[k].codes()[coords[k]]);
+				}
+				if (labels) {
+					field(category(free[k], coords[k], true));
+				}
+			}
+			if (values.isMissing(index)) {
+				field(null);
+			} else {
+				value(values.get(index));
+			}
+			Object status = values.status(index);
+			field(status != null ? status.toString() : null);
+			endRow();
+
+			int k = free.length - 1;
+			for (; k >= 0; k--) {
+				index += free[k].getStride();
+				if (++coords[k] < free[k].getSize()) {
+					break;
+				}
+				index -= coords[k] * free[k].getStride();
+				coords[k] = 0;
+			}
+			if (k < 0) {
+				return;
+			}
+		}
+	}
+
+	private static String category(Dimension dimension, int catIndex, boolean labels) {
+		if (labels) {
+			Object label = dimension.labels()[catIndex];
+			if (label != null) {
+				return label.toString();
+			}
+		}
+		return dimension.codes()[catIndex];
+	}
+
+	private void value(double value) {
+		if (formatter != null) {
+			field(formatter.format(value));
+			return;
+		}
+		separate();
+		// whole numbers without fraction, as long as a double holds them
+		// exactly
+		long whole = (long) value;
+		if (whole == value && Math.abs(value) < 1e15) {
+			buffer.append(whole);
+		} else {
+			buffer.append(value);
+		}
+	}
+
+	private void field(String text) {
+		separate();
+		if (text == null) {
+			return;
+		}
+		if (!needsQuotes(text)) {
+			buffer.append(text);
+			return;
+		}
+		buffer.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"') {
+				buffer.append('"');
+			}
+			buffer.append(c);
+		}
+		buffer.append('"');
+	}
+
+	private boolean needsQuotes(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == delimiter || c == '"' || c == '\r' || c == '\n') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void separate() {
+		if (rowStarted) {
+			buffer.append(delimiter);
+		}
+		rowStarted = true;
+	}
+
+	private void endRow() throws IOException {
+		buffer.append('\r').append('\n');
+		rowStarted = false;
+		if (buffer.length() >= BUFFER_SIZE) {
+			flush();
+		}
+	}
+
+	// a row longer than the chunk goes in several writes
+	private void flush() throws IOException {
+		int length = buffer.length();
+		for (int start = 0; start < length; start += chunk.length) {
+			int end = Math.min(length, start + chunk.length);
+			buffer.getChars(start, end, chunk, 0);
+			out.write(chunk, 0, end - start);
+		}
+		buffer.setLength(0);
+	}
+
+}
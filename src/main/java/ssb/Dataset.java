@@ -11,8 +11,7 @@ class Dataset {
 	private String label;
 	private String source;
 	private Date updated;
-	private List<Object> value;
-	private Map<String, Object> status;
+	private ValueStore values;
 	private Map<String, Object> dimension;
 
 	@JsonGetter("label")
@@ -32,12 +31,12 @@ class Dataset {
 
 	@JsonGetter("value")
 	List<Object> getValue() {
-		return value;
+		return values.asList();
 	}
 
 	@JsonGetter("status")
 	Map<String, Object> getStatus() {
-		return status;
+		return values.statusMap();
 	}
 
 	@JsonGetter("dimension")
@@ -45,4 +44,28 @@ class Dataset {
 		return dimension;
 	}
 
+	ValueStore getValues() {
+		return values;
+	}
+
+	void setLabel(String label) {
+		this.label = label;
+	}
+
+	void setSource(String source) {
+		this.source = source;
+	}
+
+	void setUpdated(Date updated) {
+		this.updated = updated;
+	}
+
+	void setValues(ValueStore values) {
+		this.values = values;
+	}
+
+	void setDimension(Map<String, Object> dimension) {
+		this.dimension = dimension;
+	}
+
 }
\ No newline at end of file
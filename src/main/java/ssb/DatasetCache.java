@@ -0,0 +1,354 @@
+package ssb;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Keeps parsed datasets in memory, keyed by source (an url or any
+ *         string id understood by the loader).
+ *
+ *         Datasets are evicted when the estimated memory they retain (values,
+ *         labels and built cells) goes over a limit, when there are too many
+ *         of them, or when they expire. When several threads ask for a
+ *         dataset that is not in the cache, it is loaded once and the other
+ *         threads wait for it.
+ *
+ *         <pre>
+ * DatasetCache cache = DatasetCache.builder()
+ * 		.maximumBytes(512L * 1024 * 1024)
+ * 		.maximumCount(200)
+ * 		.expireAfterWrite(1, TimeUnit.HOURS)
+ * 		.build();
+ * SSBDataset ds = cache.get("https://data.ssb.no/api/v0/dataset/1052.json?lang=en");
+ *
+ * // datasets kept under an id, with lazy cells
+ * DatasetCache byId = DatasetCache.builder()
+ * 		.loader(id -&gt; SSBDataset.builder().lazyCells(true).build(repository.json(id)))
+ * 		.build();
+ *         </pre>
+ */
+public class DatasetCache {
+
+	private final LoadingCache<String, SSBDataset> cache;
+
+	private DatasetCache(Builder builder) {
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().recordStats();
+		Weigher<String, SSBDataset> weigher = null;
+		if (builder.maximumBytes >= 0 || builder.maximumCount >= 0) {
+			// Guava splits the limits between its segments: with one segment
+			// they hold for the whole cache
+			cacheBuilder.concurrencyLevel(1);
+		}
+		if (builder.maximumCount == 0) {
+			cacheBuilder.maximumSize(0);
+		} else if (builder.maximumBytes >= 0) {
+			weigher = weigher(builder.maximumBytes, builder.maximumCount);
+			cacheBuilder.maximumWeight(maximumWeight(builder.maximumBytes, builder.maximumCount));
+		} else if (builder.maximumCount >= 0) {
+			cacheBuilder.maximumSize(builder.maximumCount);
+		}
+		if (builder.expireAfterWriteNanos >= 0) {
+			cacheBuilder.expireAfterWrite(builder.expireAfterWriteNanos, TimeUnit.NANOSECONDS);
+		}
+		if (builder.expireAfterAccessNanos >= 0) {
+			cacheBuilder.expireAfterAccess(builder.expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+		}
+		Loader loader = builder.loader;
+		CacheLoader<String, SSBDataset> cacheLoader = new CacheLoader<String, SSBDataset>() {
+
+			@Override
+			public SSBDataset load(String source) throws SSBDatasetException {
+				return loader.load(source);
+			}
+		};
+		cache = weigher != null ? cacheBuilder.weigher(weigher).build(cacheLoader) : cacheBuilder.build(cacheLoader);
+	}
+
+	/*
+	 * Guava does not combine a size with a weight limit. With a count limit,
+	 * a dataset weighs its bytes times the count, and at least the whole byte
+	 * limit: the weights of more than count datasets, or of datasets holding
+	 * more than the byte limit, add up to more than the maximum weight, the
+	 * byte limit times the count. Guava weights are ints: bytes are counted
+	 * in the smallest unit keeping the maximum weight below
+	 * Integer.MAX_VALUE, and a dataset over the byte limit weighs
+	 * Integer.MAX_VALUE.
+	 */
+
+	private static long countShare(long maximumCount) {
+		return maximumCount > 0 && maximumCount < Integer.MAX_VALUE / 2 ? maximumCount : 1;
+	}
+
+	private static long weightUnit(long maximumBytes, long maximumCount) {
+		long perShare = (Integer.MAX_VALUE - 1) / countShare(maximumCount);
+		return Math.max(1, (maximumBytes + perShare - 1) / perShare);
+	}
+
+	private static long maximumWeight(long maximumBytes, long maximumCount) {
+		return maximumBytes / weightUnit(maximumBytes, maximumCount) * countShare(maximumCount);
+	}
+
+	private static Weigher<String, SSBDataset> weigher(long maximumBytes, long maximumCount) {
+		long unit = weightUnit(maximumBytes, maximumCount);
+		long count = countShare(maximumCount);
+		long share = maximumBytes / unit;
+		long minimumWeight = maximumCount > 0 ? share : 0;
+		return (source, ds) -> {
+			long units = ds.estimatedBytes() / unit;
+			if (units > share) {
+				return Integer.MAX_VALUE;
+			}
+			return (int) Math.max(units * count, minimumWeight);
+		};
+	}
+
+	/**
+	 * Creates a builder for dataset caches.
+	 *
+	 * @return a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Gets a dataset, loading it if it is not in the cache.
+	 *
+	 * @param source
+	 *            the source of the dataset
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the dataset cannot be loaded
+	 */
+	public SSBDataset get(String source) throws SSBDatasetException {
+		try {
+			return cache.get(source);
+		} catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+			if (e.getCause() instanceof SSBDatasetException) {
+				throw (SSBDatasetException) e.getCause();
+			}
+			throw new SSBDatasetException("DatasetCache: Could not retrieve dataset from: " + source, e.getCause());
+		}
+	}
+
+	/**
+	 * Gets a dataset if it is in the cache.
+	 *
+	 * @param source
+	 *            the source of the dataset
+	 * @return the dataset, null if it is not in the cache
+	 */
+	public SSBDataset getIfPresent(String source) {
+		return cache.getIfPresent(source);
+	}
+
+	/**
+	 * Puts a dataset in the cache, replacing any dataset of the same source.
+	 *
+	 * @param source
+	 *            the source of the dataset
+	 * @param ds
+	 *            the dataset
+	 */
+	public void put(String source, SSBDataset ds) {
+		cache.put(source, ds);
+	}
+
+	/**
+	 * Removes a dataset from the cache.
+	 *
+	 * @param source
+	 *            the source of the dataset
+	 */
+	public void invalidate(String source) {
+		cache.invalidate(source);
+	}
+
+	/**
+	 * Removes all datasets from the cache.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Gets the number of datasets in the cache.
+	 *
+	 * @return the number of datasets, expired ones may still be counted
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Gets an estimate of the memory retained by the datasets in the cache.
+	 *
+	 * @return the estimated number of bytes
+	 */
+	public long estimatedBytes() {
+		long bytes = 0;
+		for (SSBDataset ds : cache.asMap().values()) {
+			bytes += ds.estimatedBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gets the statistics of the cache: hits, misses, loads and evictions.
+	 *
+	 * @return a snapshot of the statistics
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	/**
+	 * Loads the dataset of a source on a cache miss.
+	 */
+	@FunctionalInterface
+	public interface Loader {
+
+		/**
+		 * Loads a dataset.
+		 *
+		 * @param source
+		 *            the source of the dataset
+		 * @return the dataset
+		 * @throws SSBDatasetException
+		 *             if the dataset cannot be loaded
+		 */
+		SSBDataset load(String source) throws SSBDatasetException;
+	}
+
+	/**
+	 * Builds {@link ssb.DatasetCache DatasetCache} objects. By default there
+	 * is no limit and no expiry, and a source is read as the url of the
+	 * dataset.
+	 */
+	public static final class Builder {
+
+		private long maximumBytes = -1;
+		private long maximumCount = -1;
+		private long expireAfterWriteNanos = -1;
+		private long expireAfterAccessNanos = -1;
+		private Loader loader = Builder::loadUrl;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the estimated memory over which datasets are evicted. The
+		 * limit is approximate: eviction may start somewhat before it.
+		 *
+		 * @param bytes
+		 *            the maximum number of bytes
+		 * @return this builder
+		 */
+		public Builder maximumBytes(long bytes) {
+			if (bytes < 0) {
+				throw new IllegalArgumentException("maximum bytes must not be negative: " + bytes);
+			}
+			this.maximumBytes = bytes;
+			return this;
+		}
+
+		/**
+		 * Sets the number of datasets over which datasets are evicted.
+		 *
+		 * @param count
+		 *            the maximum number of datasets
+		 * @return this builder
+		 */
+		public Builder maximumCount(long count) {
+			if (count < 0) {
+				throw new IllegalArgumentException("maximum count must not be negative: " + count);
+			}
+			this.maximumCount = count;
+			return this;
+		}
+
+		/**
+		 * Sets the time after which a dataset expires once loaded.
+		 *
+		 * @param duration
+		 *            the duration
+		 * @param unit
+		 *            the unit of the duration
+		 * @return this builder
+		 */
+		public Builder expireAfterWrite(long duration, TimeUnit unit) {
+			if (duration < 0) {
+				throw new IllegalArgumentException("duration must not be negative: " + duration);
+			}
+			this.expireAfterWriteNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		/**
+		 * Sets the time after which a dataset expires once last read.
+		 *
+		 * @param duration
+		 *            the duration
+		 * @param unit
+		 *            the unit of the duration
+		 * @return this builder
+		 */
+		public Builder expireAfterAccess(long duration, TimeUnit unit) {
+			if (duration < 0) {
+				throw new IllegalArgumentException("duration must not be negative: " + duration);
+			}
+			this.expireAfterAccessNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		/**
+		 * Sets how a dataset is loaded on a cache miss.
+		 *
+		 * @param loader
+		 *            the loader
+		 * @return this builder
+		 */
+		public Builder loader(Loader loader) {
+			if (loader == null) {
+				throw new IllegalArgumentException("loader must not be null");
+			}
+			this.loader = loader;
+			return this;
+		}
+
+		/**
+		 * Builds the cache.
+		 *
+		 * @return the cache
+		 */
+		public DatasetCache build() {
+			return new DatasetCache(this);
+		}
+
+		private static SSBDataset loadUrl(String source) throws SSBDatasetException {
+			try {
+				return new SSBDataset(new URL(source));
+			} catch (MalformedURLException e) {
+				throw new SSBDatasetException("DatasetCache: Could not retrieve dataset from: " + source, e);
+			}
+		}
+	}
+
+}
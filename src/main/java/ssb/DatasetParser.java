@@ -0,0 +1,392 @@
+package ssb;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+/**
+ * Reads a JSON-stat response token by token into a {@link ssb.Dataset
+ * Dataset}.
+ *
+ * The 'dataset' object is consumed in a single pass with Jackson's streaming
+ * {@link JsonParser}: no intermediate tree is built, values and metadata go
+ * straight into their final structures.
+ */
+final class DatasetParser {
+
+	/** The factory, thread-safe and shared by all parsers. */
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	/** The factory that does not recycle its buffers. */
+	private static final JsonFactory UNRECYCLED_FACTORY = new JsonFactory()
+			.disable(JsonFactory.Feature.USE_THREAD_LOCAL_FOR_BUFFER_RECYCLING);
+
+	/** The parser storing values on the heap, with recycled buffers. */
+	static final DatasetParser DEFAULT = new DatasetParser(ValueStorage.HEAP, true);
+
+	private final JsonFactory factory;
+	private final ValueStorage storage;
+
+	/**
+	 * Instantiates a new dataset parser. A parser holds no state of its own
+	 * and may be shared by threads.
+	 *
+	 * @param storage
+	 *            where the values are stored
+	 * @param bufferRecycling
+	 *            true to reuse the read buffers of a thread from one parse to
+	 *            the next
+	 */
+	DatasetParser(ValueStorage storage, boolean bufferRecycling) {
+		this.factory = bufferRecycling ? FACTORY : UNRECYCLED_FACTORY;
+		this.storage = storage;
+	}
+
+	/**
+	 * Parses a dataset from a json string.
+	 *
+	 * @param datasetString
+	 *            the json string
+	 * @param listener
+	 *            the listener of the parse phase, null for none
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the json cannot be read
+	 * @throws SSBDatasetException
+	 *             if the 'dataset' field is missing or incomplete
+	 */
+	Dataset parse(String datasetString, LoadListener listener) throws IOException, SSBDatasetException {
+		try (JsonParser parser = factory.createParser(datasetString)) {
+			return parse(parser, null, listener);
+		}
+	}
+
+	/**
+	 * Parses a dataset from json bytes.
+	 *
+	 * @param datasetBytes
+	 *            the json bytes
+	 * @param listener
+	 *            the listener of the parse phase, null for none
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the json cannot be read
+	 * @throws SSBDatasetException
+	 *             if the 'dataset' field is missing or incomplete
+	 */
+	Dataset parse(byte[] datasetBytes, LoadListener listener) throws IOException, SSBDatasetException {
+		try (JsonParser parser = factory.createParser(datasetBytes)) {
+			return parse(parser, null, listener);
+		}
+	}
+
+	/**
+	 * Parses a dataset from a stream, as bytes arrive.
+	 *
+	 * @param in
+	 *            the stream, closed when done
+	 * @param source
+	 *            the url or file read, null if unknown
+	 * @param listener
+	 *            the listener of the parse phase, null for none
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the json cannot be read
+	 * @throws SSBDatasetException
+	 *             if the 'dataset' field is missing or incomplete
+	 */
+	Dataset parse(InputStream in, Object source, LoadListener listener) throws IOException, SSBDatasetException {
+		try (JsonParser parser = factory.createParser(in)) {
+			return parse(parser, source, listener);
+		}
+	}
+
+	/**
+	 * Parses a dataset from a stream of chars, as they arrive.
+	 *
+	 * @param reader
+	 *            the reader, closed when done
+	 * @param listener
+	 *            the listener of the parse phase, null for none
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the json cannot be read
+	 * @throws SSBDatasetException
+	 *             if the 'dataset' field is missing or incomplete
+	 */
+	Dataset parse(Reader reader, LoadListener listener) throws IOException, SSBDatasetException {
+		try (JsonParser parser = factory.createParser(reader)) {
+			return parse(parser, null, listener);
+		}
+	}
+
+	// the bytes read are the offset of the parser once done, chars for text
+	private Dataset parse(JsonParser parser, Object source, LoadListener listener)
+			throws IOException, SSBDatasetException {
+		Probe parsing = Probe.start(listener, LoadPhase.PARSE, source);
+		Dataset ds = parse(parser, storage);
+		if (listener != null) {
+			JsonLocation location = parser.getCurrentLocation();
+			long bytes = location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+			parsing.stop(bytes, ds.getValues().size());
+		}
+		return ds;
+	}
+
+	/**
+	 * Parses a dataset from the root object of a json document.
+	 *
+	 * @param parser
+	 *            the parser, positioned before the root object
+	 * @param storage
+	 *            where the values are stored
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the json cannot be read
+	 * @throws SSBDatasetException
+	 *             if the 'dataset' field is missing or incomplete
+	 */
+	static Dataset parse(JsonParser parser, ValueStorage storage) throws IOException, SSBDatasetException {
+		Dataset ds = null;
+		if (parser.nextToken() == JsonToken.START_OBJECT) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if ("dataset".equals(field) && token == JsonToken.START_OBJECT) {
+					ds = readDataset(parser, storage);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		if (ds == null) {
+			throw new SSBDatasetException("SSBDataset constructor: Could not read from field 'dataset'");
+		}
+		if (ds.getDimension() == null || ds.getValues() == null) {
+			throw new SSBDatasetException("SSBDataset constructor: Could not read fields 'dimension' and 'value'");
+		}
+		long valueCount = valueCount(ds.getDimension());
+		if (valueCount >= 0 && valueCount != ds.getValues().size()) {
+			throw new SSBDatasetException("SSBDataset constructor: Found " + ds.getValues().size()
+					+ " values, the dimension sizes give " + valueCount);
+		}
+		return ds;
+	}
+
+	/**
+	 * Parses any json value, with the same mapping as the metadata of a
+	 * dataset.
+	 *
+	 * @param json
+	 *            the json string
+	 * @return a Map, a List, a String, a Number, a Boolean or null
+	 * @throws IOException
+	 *             if the json cannot be read
+	 */
+	static Object parseJson(String json) throws IOException {
+		try (JsonParser parser = FACTORY.createParser(json)) {
+			return readAny(parser, parser.nextToken());
+		}
+	}
+
+	/*
+	 **************************************************************************
+	 * private methods
+	 **************************************************************************
+	 */
+
+	// the parser is positioned on the START_OBJECT of the dataset
+	private static Dataset readDataset(JsonParser parser, ValueStorage storage) throws IOException {
+		Dataset ds = new Dataset();
+		ValueStore.Builder values = null;
+		SortedMap<Integer, Object> status = new TreeMap<>();
+		try {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				switch (field) {
+				case "label":
+					ds.setLabel(parser.getValueAsString());
+					break;
+				case "source":
+					ds.setSource(parser.getValueAsString());
+					break;
+				case "updated":
+					ds.setUpdated(readDate(parser, token));
+					break;
+				case "value":
+					if (token == JsonToken.START_ARRAY) {
+						if (values != null) {
+							values.discard();
+						}
+						values = storage.builder(expectedSize(ds.getDimension()));
+						readValues(parser, values);
+					} else {
+						parser.skipChildren();
+					}
+					break;
+				case "status":
+					readStatus(parser, token, status);
+					break;
+				case "dimension":
+					ds.setDimension(readObject(parser, token));
+					break;
+				default:
+					parser.skipChildren();
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			if (values != null) {
+				values.discard();
+			}
+			throw e;
+		}
+		if (values != null) {
+			ds.setValues(values.build(status));
+		}
+		return ds;
+	}
+
+	private static Date readDate(JsonParser parser, JsonToken token) throws IOException {
+		if (token == JsonToken.VALUE_NUMBER_INT) {
+			return new Date(parser.getLongValue());
+		}
+		if (token != JsonToken.VALUE_STRING) {
+			parser.skipChildren();
+			return null;
+		}
+		try {
+			return new StdDateFormat().parse(parser.getText());
+		} catch (ParseException e) {
+			throw new IOException("Could not parse date: " + parser.getText(), e);
+		}
+	}
+
+	// the parser is positioned on the START_ARRAY of the values; a string is
+	// read as the decimal it holds, or as a missing value if it holds none,
+	// and any other token that is not a number is a missing value
+	private static void readValues(JsonParser parser, ValueStore.Builder values) throws IOException {
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			switch (token) {
+			case VALUE_NUMBER_INT:
+				values.add(parser.getDoubleValue(), false);
+				break;
+			case VALUE_NUMBER_FLOAT:
+				values.add(parser.getDoubleValue(), true);
+				break;
+			case VALUE_STRING:
+				try {
+					values.add(Double.parseDouble(parser.getText()), true);
+				} catch (NumberFormatException e) {
+					values.addMissing();
+				}
+				break;
+			default:
+				parser.skipChildren();
+				values.addMissing();
+			}
+		}
+	}
+
+	// statuses are either an object keyed by index or an array
+	private static void readStatus(JsonParser parser, JsonToken token, SortedMap<Integer, Object> status)
+			throws IOException {
+		if (token == JsonToken.START_OBJECT) {
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				Object value = readAny(parser, parser.nextToken());
+				try {
+					status.put(Integer.valueOf(field), value);
+				} catch (NumberFormatException e) {
+					// not an index, ignored
+				}
+			}
+		} else if (token == JsonToken.START_ARRAY) {
+			int index = 0;
+			while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+				Object value = readAny(parser, token);
+				if (value != null) {
+					status.put(index, value);
+				}
+				index++;
+			}
+		} else {
+			parser.skipChildren();
+		}
+	}
+
+	// the number of values given by the dimension sizes, if already read
+	private static int expectedSize(Map<String, Object> dimension) {
+		long size = valueCount(dimension);
+		return size >= 0 && size <= Integer.MAX_VALUE ? (int) size : 0;
+	}
+
+	// the product of the dimension sizes, -1 if they are missing
+	private static long valueCount(Map<String, Object> dimension) {
+		if (dimension == null || !(dimension.get("size") instanceof List)) {
+			return -1;
+		}
+		long size = 1;
+		for (Object dimSize : (List<?>) dimension.get("size")) {
+			if (!(dimSize instanceof Number)) {
+				return -1;
+			}
+			size *= ((Number) dimSize).longValue();
+		}
+		return size;
+	}
+
+	private static Map<String, Object> readObject(JsonParser parser, JsonToken token) throws IOException {
+		if (token != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return null;
+		}
+		Map<String, Object> map = new LinkedHashMap<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			map.put(field, readAny(parser, parser.nextToken()));
+		}
+		return map;
+	}
+
+	// same mapping as Jackson's untyped deserialization
+	private static Object readAny(JsonParser parser, JsonToken token) throws IOException {
+		switch (token) {
+		case START_OBJECT:
+			return readObject(parser, token);
+		case START_ARRAY:
+			List<Object> list = new ArrayList<>();
+			while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+				list.add(readAny(parser, token));
+			}
+			return list;
+		case VALUE_STRING:
+			return parser.getText();
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			return parser.getNumberValue();
+		case VALUE_TRUE:
+			return Boolean.TRUE;
+		case VALUE_FALSE:
+			return Boolean.FALSE;
+		default:
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+package ssb;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         A dimension of a dataset, resolved once when the dataset is loaded:
+ *         its id, label, size, stride, role and categories. Immutable; all
+ *         getters run in constant time and allocate nothing.
+ *
+ *         <pre>
+ * Dimension time = ds.dimension("Tid");
+ * int size = time.getSize(); // 13
+ * String label = time.getCategory("2015M08").getLabel(); // 2015M08
+ *         </pre>
+ */
+public final class Dimension {
+
+	private final int index;
+	private final String id;
+	private final String label;
+	private final int size;
+	private final int stride;
+	private final String role;
+	private final String[] codes;
+	private final Object[] labels;
+	private final List<Category> categories;
+	private final List<String> codeList;
+	private final List<Object> labelList;
+	private final Map<String, Integer> positions;
+
+	/**
+	 * Instantiates a new dimension.
+	 *
+	 * @param index
+	 *            the position of the dimension
+	 * @param id
+	 *            the id
+	 * @param label
+	 *            the label, null if none
+	 * @param stride
+	 *            the distance in the values between two consecutive
+	 *            categories
+	 * @param role
+	 *            the role, null if none
+	 * @param codes
+	 *            the code of each category, null where there is none
+	 * @param labels
+	 *            the label of each category, null where there is none
+	 * @param units
+	 *            the unit of each category, null where there is none
+	 */
+	Dimension(int index, String id, String label, int stride, String role, String[] codes, Object[] labels,
+			Map<String, Object>[] units) {
+		this.index = index;
+		this.id = id;
+		this.label = label;
+		this.size = labels.length;
+		this.stride = stride;
+		this.role = role;
+		this.codes = codes;
+		this.labels = labels;
+		Category[] dimCategories = new Category[size];
+		this.positions = new HashMap<>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			dimCategories[i] = new Category(i, codes[i], labels[i] != null ? labels[i].toString() : null,
+					units[i] != null ? Collections.unmodifiableMap(units[i]) : null);
+			if (codes[i] != null) {
+				positions.putIfAbsent(codes[i], i);
+			}
+		}
+		this.categories = Collections.unmodifiableList(Arrays.asList(dimCategories));
+		this.codeList = Collections.unmodifiableList(Arrays.asList(codes));
+		this.labelList = Collections.unmodifiableList(Arrays.asList(labels));
+	}
+
+	/**
+	 * Gets the position of this dimension in the dataset.
+	 *
+	 * @return the dimension index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Gets the id of this dimension.
+	 *
+	 * @return the id
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Gets the label of this dimension.
+	 *
+	 * @return the label, null if none
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * Gets the number of categories of this dimension.
+	 *
+	 * @return the size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the distance in the values between two consecutive categories of
+	 * this dimension. Values are ordered row-major, the last dimension varying
+	 * fastest.
+	 *
+	 * @return the stride
+	 */
+	public int getStride() {
+		return stride;
+	}
+
+	/**
+	 * Gets the role of this dimension.
+	 *
+	 * @return the role, such as {@link ssb.Role#TIME}, null if none
+	 */
+	public String getRole() {
+		return role;
+	}
+
+	/**
+	 * Gets the categories of this dimension.
+	 *
+	 * @return the categories, by category index, read-only
+	 */
+	public List<Category> getCategories() {
+		return categories;
+	}
+
+	/**
+	 * Gets a category by index.
+	 *
+	 * @param catIndex
+	 *            the category index
+	 * @return the category
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such category
+	 */
+	public Category getCategory(int catIndex) {
+		return categories.get(catIndex);
+	}
+
+	/**
+	 * Gets a category by code.
+	 *
+	 * @param code
+	 *            the category code
+	 * @return the category, null if there is no such category
+	 */
+	public Category getCategory(String code) {
+		int catIndex = getCategoryIndex(code);
+		return catIndex >= 0 ? categories.get(catIndex) : null;
+	}
+
+	/**
+	 * Gets the index of a category by code.
+	 *
+	 * @param code
+	 *            the category code
+	 * @return the category index, -1 if there is no such category
+	 */
+	public int getCategoryIndex(String code) {
+		Integer catIndex = positions.get(code);
+		return catIndex != null ? catIndex : -1;
+	}
+
+	/**
+	 * Gets the category codes of this dimension.
+	 *
+	 * @return the codes, by category index, read-only
+	 */
+	public List<String> getCategoryCodes() {
+		return codeList;
+	}
+
+	/**
+	 * Gets the category labels of this dimension.
+	 *
+	 * @return the labels, by category index, read-only
+	 */
+	public List<Object> getCategoryLabels() {
+		return labelList;
+	}
+
+	/**
+	 * Gets the category labels as an array shared with the cells.
+	 *
+	 * @return the labels, not to be modified
+	 */
+	Object[] labels() {
+		return labels;
+	}
+
+	/**
+	 * Gets the category codes as an array.
+	 *
+	 * @return the codes, not to be modified
+	 */
+	String[] codes() {
+		return codes;
+	}
+
+	/**
+	 * Gets an estimate of the memory retained by this dimension, the labels
+	 * aside: they are counted by the label dictionary.
+	 *
+	 * @return the estimated number of bytes
+	 */
+	long estimatedBytes() {
+		// the categories, the codes and a table entry per code
+		long bytes = 128 + (40L + 8 + 48) * size;
+		for (String code : codes) {
+			bytes += code != null ? 40 + 2L * code.length() : 0;
+		}
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return id + categories;
+	}
+
+}
@@ -0,0 +1,285 @@
+package ssb;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Describes a csv export of a dataset, written by
+ *         {@link ssb.SSBDataset#writeCsv(java.io.Writer, ExportSpec) writeCsv}:
+ *         either a pivot table, one dimension for the rows and one for the
+ *         columns, or the whole cube in long format, one row per value.
+ *         Immutable; one spec can be shared by several exports.
+ *
+ *         <pre>
+ * // pivot table, tab separated, with labels
+ * ExportSpec pivot = ExportSpec.pivot(1, 3).filters(filters).delimiter('\t').labels(true).build();
+ *
+ * // long format, codes and labels of each category, then value and status
+ * ExportSpec cube = ExportSpec.longFormat().labels(true).build();
+ * ds.writeCsv(out, cube);
+ *         </pre>
+ */
+public final class ExportSpec {
+
+	private final int rowDimIndex;
+	private final int colDimIndex;
+	private final Map<Integer, Integer> filters;
+	private final char delimiter;
+	private final boolean codes;
+	private final boolean labels;
+	private final boolean header;
+	private final ValueFormatter formatter;
+
+	private ExportSpec(Builder builder) {
+		this.rowDimIndex = builder.rowDimIndex;
+		this.colDimIndex = builder.colDimIndex;
+		this.filters = Collections.unmodifiableMap(new HashMap<>(builder.filters));
+		this.delimiter = builder.delimiter;
+		this.codes = builder.codes;
+		this.labels = builder.labels;
+		this.header = builder.header;
+		this.formatter = builder.formatter;
+	}
+
+	/**
+	 * Creates a builder for a pivot table. The dimensions that are neither
+	 * rows, columns nor filters take their 1st category, as done by
+	 * {@link ssb.SSBDataset#table(int, int, Map) table}.
+	 *
+	 * @param rowDimIndex
+	 *            the index of the dimension for the rows
+	 * @param colDimIndex
+	 *            the index of the dimension for the columns
+	 * @return a new builder
+	 */
+	public static Builder pivot(int rowDimIndex, int colDimIndex) {
+		if (rowDimIndex < 0 || colDimIndex < 0) {
+			throw new IllegalArgumentException(
+					"dimensions indexes must not be negative: " + rowDimIndex + ", " + colDimIndex);
+		}
+		return new Builder(rowDimIndex, colDimIndex);
+	}
+
+	/**
+	 * Creates a builder for the long format: one row per value, in the order
+	 * of the values, with a column for each dimension that is not filtered,
+	 * then the value and its status.
+	 *
+	 * @return a new builder
+	 */
+	public static Builder longFormat() {
+		return new Builder(-1, -1);
+	}
+
+	/**
+	 * Tells whether the export is a pivot table.
+	 *
+	 * @return true for a pivot table, false for the long format
+	 */
+	public boolean isPivot() {
+		return rowDimIndex >= 0;
+	}
+
+	/**
+	 * Gets the index of the dimension for the rows of a pivot table.
+	 *
+	 * @return the index, -1 for the long format
+	 */
+	public int getRowDimIndex() {
+		return rowDimIndex;
+	}
+
+	/**
+	 * Gets the index of the dimension for the columns of a pivot table.
+	 *
+	 * @return the index, -1 for the long format
+	 */
+	public int getColDimIndex() {
+		return colDimIndex;
+	}
+
+	/**
+	 * Gets the filters: key is the index of a dimension, value is the index of
+	 * its category.
+	 *
+	 * @return the filters, read-only
+	 */
+	public Map<Integer, Integer> getFilters() {
+		return filters;
+	}
+
+	/**
+	 * Gets the character between two fields.
+	 *
+	 * @return the delimiter
+	 */
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	/**
+	 * Tells whether categories are written with their codes.
+	 *
+	 * @return true if codes are written
+	 */
+	public boolean isCodes() {
+		return codes;
+	}
+
+	/**
+	 * Tells whether categories are written with their labels.
+	 *
+	 * @return true if labels are written
+	 */
+	public boolean isLabels() {
+		return labels;
+	}
+
+	/**
+	 * Tells whether a header row is written.
+	 *
+	 * @return true if there is a header row
+	 */
+	public boolean isHeader() {
+		return header;
+	}
+
+	/**
+	 * Gets the formatter of the values.
+	 *
+	 * @return the formatter, null if values are written in their plain form
+	 */
+	public ValueFormatter getFormatter() {
+		return formatter;
+	}
+
+	/**
+	 * Builds {@link ssb.ExportSpec ExportSpec} objects. By default fields are
+	 * separated by commas, categories are written with their codes, there is
+	 * a header row and values are written in their plain form: locale
+	 * independent, without fraction when they are whole numbers.
+	 */
+	public static final class Builder {
+
+		private final int rowDimIndex;
+		private final int colDimIndex;
+		private Map<Integer, Integer> filters = Collections.emptyMap();
+		private char delimiter = ',';
+		private boolean codes = true;
+		private boolean labels;
+		private boolean header = true;
+		private ValueFormatter formatter;
+
+		private Builder(int rowDimIndex, int colDimIndex) {
+			this.rowDimIndex = rowDimIndex;
+			this.colDimIndex = colDimIndex;
+		}
+
+		/**
+		 * Sets the filters. In long format, the filtered dimensions have no
+		 * column and only their category is written.
+		 *
+		 * @param filters
+		 *            key is the index of the dimension to be used as filter,
+		 *            value is the index of the category
+		 * @return this builder
+		 */
+		public Builder filters(Map<Integer, Integer> filters) {
+			if (filters == null) {
+				throw new IllegalArgumentException("filters must not be null");
+			}
+			this.filters = filters;
+			return this;
+		}
+
+		/**
+		 * Sets the character between two fields, such as ';' or '\t'.
+		 *
+		 * @param delimiter
+		 *            the delimiter
+		 * @return this builder
+		 */
+		public Builder delimiter(char delimiter) {
+			if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+				throw new IllegalArgumentException("delimiter must not be a quote or a line break");
+			}
+			this.delimiter = delimiter;
+			return this;
+		}
+
+		/**
+		 * Sets whether categories are written with their codes. In a pivot
+		 * table, labels are preferred when both are set.
+		 *
+		 * @param codes
+		 *            true to write the codes
+		 * @return this builder
+		 */
+		public Builder codes(boolean codes) {
+			this.codes = codes;
+			return this;
+		}
+
+		/**
+		 * Sets whether categories are written with their labels.
+		 *
+		 * @param labels
+		 *            true to write the labels
+		 * @return this builder
+		 */
+		public Builder labels(boolean labels) {
+			this.labels = labels;
+			return this;
+		}
+
+		/**
+		 * Sets whether a header row is written.
+		 *
+		 * @param header
+		 *            true to write a header row
+		 * @return this builder
+		 */
+		public Builder header(boolean header) {
+			this.header = header;
+			return this;
+		}
+
+		/**
+		 * Sets the formatter of the values, for instance
+		 * {@link ssb.ValueFormatter#numberFormat(java.util.Locale)
+		 * numberFormat(locale)}.
+		 *
+		 * @param formatter
+		 *            the formatter
+		 * @return this builder
+		 */
+		public Builder formatter(ValueFormatter formatter) {
+			if (formatter == null) {
+				throw new IllegalArgumentException("formatter must not be null");
+			}
+			this.formatter = formatter;
+			return this;
+		}
+
+		/**
+		 * Builds the spec.
+		 *
+		 * @return the spec
+		 */
+		public ExportSpec build() {
+			if (!codes && !labels) {
+				throw new IllegalArgumentException("categories must be written with codes, labels or both");
+			}
+			return new ExportSpec(this);
+		}
+	}
+
+}
@@ -0,0 +1,306 @@
+package ssb;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+
+/**
+ * An on-disk cache of dataset responses, keyed by url.
+ *
+ * Each entry is one file: a header holding the validators of the response
+ * (ETag, Last-Modified and the 'updated' value of the dataset), followed by
+ * the json as received. On reload the validators are sent with the request;
+ * if the server answers 304 Not Modified, the json is read from the file.
+ */
+final class HttpCache {
+
+	private static final int VERSION = 1;
+
+	/** The offset of the 'updated' value in the header. */
+	private static final int UPDATED_OFFSET = 4;
+
+	private final Path directory;
+
+	/**
+	 * Instantiates a new http cache.
+	 *
+	 * @param directory
+	 *            the directory holding the entries
+	 */
+	HttpCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Opens the entry for an url.
+	 *
+	 * @param datasetUrl
+	 *            the dataset url
+	 * @return the entry, null if there is none or it cannot be read
+	 */
+	Entry get(URL datasetUrl) {
+		Path file = file(datasetUrl);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+			if (in.readInt() != VERSION) {
+				in.close();
+				return null;
+			}
+			long updated = in.readLong();
+			long lastModified = in.readLong();
+			String etag = in.readUTF();
+			return new Entry(in, etag, lastModified, updated);
+		} catch (IOException e) {
+			closeQuietly(in);
+			return null;
+		}
+	}
+
+	/**
+	 * Starts a new entry for an url.
+	 *
+	 * @param datasetUrl
+	 *            the dataset url
+	 * @param connection
+	 *            the connection holding the response
+	 * @return the new entry
+	 * @throws IOException
+	 *             if the entry cannot be created
+	 */
+	EntryWriter put(URL datasetUrl, HttpURLConnection connection) throws IOException {
+		Files.createDirectories(directory);
+		Path temp = Files.createTempFile(directory, key(datasetUrl), ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp, StandardOpenOption.WRITE)));
+			String etag = connection.getHeaderField("ETag");
+			out.writeInt(VERSION);
+			out.writeLong(0);
+			out.writeLong(connection.getLastModified());
+			out.writeUTF(etag != null ? etag : "");
+			return new EntryWriter(datasetUrl, temp, out);
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	private Path file(URL datasetUrl) {
+		return directory.resolve(key(datasetUrl) + ".cache");
+	}
+
+	// a file name safe key
+	private static String key(URL datasetUrl) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(datasetUrl.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder key = new StringBuilder();
+			for (byte b : hash) {
+				key.append(String.format("%02x", b));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void closeQuietly(InputStream in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				// nothing to do
+			}
+		}
+	}
+
+	/**
+	 * A cached response, positioned at the start of the json.
+	 */
+	static final class Entry {
+
+		private final InputStream json;
+		private final String etag;
+		private final long lastModified;
+		private final long updated;
+
+		private Entry(InputStream json, String etag, long lastModified, long updated) {
+			this.json = json;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.updated = updated;
+		}
+
+		/**
+		 * Adds the validators of this entry to a request.
+		 *
+		 * @param connection
+		 *            the connection, not yet connected
+		 */
+		void prepare(HttpURLConnection connection) {
+			if (!etag.isEmpty()) {
+				connection.setRequestProperty("If-None-Match", etag);
+			}
+			// the dataset's own timestamp when the server gave none
+			long since = lastModified > 0 ? lastModified : updated;
+			if (since > 0) {
+				connection.setIfModifiedSince(since);
+			}
+		}
+
+		/**
+		 * Gets the json of this entry.
+		 *
+		 * @return the json, to be closed by the caller
+		 */
+		InputStream json() {
+			return json;
+		}
+
+		/**
+		 * Closes this entry without reading the json.
+		 */
+		void close() {
+			closeQuietly(json);
+		}
+	}
+
+	/**
+	 * Writes a new entry while the json is read.
+	 */
+	final class EntryWriter {
+
+		private final URL datasetUrl;
+		private final Path temp;
+		private final OutputStream out;
+		private boolean failed;
+
+		private EntryWriter(URL datasetUrl, Path temp, OutputStream out) {
+			this.datasetUrl = datasetUrl;
+			this.temp = temp;
+			this.out = out;
+		}
+
+		/**
+		 * Wraps the json of the response so that the bytes read are also
+		 * written to the entry. Closing the returned stream reads the bytes
+		 * left after the json.
+		 *
+		 * @param json
+		 *            the json of the response
+		 * @return the wrapped json
+		 */
+		InputStream tee(InputStream json) {
+			return new FilterInputStream(json) {
+
+				@Override
+				public int read() throws IOException {
+					int b = super.read();
+					if (b >= 0) {
+						write(new byte[] { (byte) b }, 0, 1);
+					}
+					return b;
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) throws IOException {
+					int n = super.read(buffer, offset, length);
+					if (n > 0) {
+						write(buffer, offset, n);
+					}
+					return n;
+				}
+
+				@Override
+				public void close() throws IOException {
+					try {
+						byte[] buffer = new byte[8192];
+						while (!failed && read(buffer, 0, buffer.length) >= 0) {
+							// keep the whole response
+						}
+					} finally {
+						super.close();
+					}
+				}
+			};
+		}
+
+		/**
+		 * Stores the entry once the dataset has been read.
+		 *
+		 * @param updated
+		 *            the 'updated' value of the dataset, may be null
+		 * @throws IOException
+		 *             if the entry cannot be stored
+		 */
+		void commit(Date updated) throws IOException {
+			try {
+				out.close();
+				if (failed) {
+					return;
+				}
+				if (updated != null) {
+					try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+						ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+						buffer.putLong(updated.getTime()).flip();
+						channel.write(buffer, UPDATED_OFFSET);
+					}
+				}
+				Files.move(temp, file(datasetUrl), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		}
+
+		/**
+		 * Drops the entry.
+		 */
+		void abort() {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// dropped anyway
+			}
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException e) {
+				// nothing to do
+			}
+		}
+
+		// a failure to write the entry must not fail the load
+		private void write(byte[] buffer, int offset, int length) {
+			if (failed) {
+				return;
+			}
+			try {
+				out.write(buffer, offset, length);
+			} catch (IOException e) {
+				failed = true;
+			}
+		}
+	}
+
+}
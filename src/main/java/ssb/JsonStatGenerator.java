@@ -0,0 +1,525 @@
+package ssb;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Generates synthetic datasets in the JSON-stat format of the SSB api,
+ *         for tests, benchmarks and load testing.
+ *
+ *         The json is streamed as it is generated: payloads of any size can be
+ *         written to a file without being held in memory. Each value is drawn
+ *         from a hash of the seed and its position, so the same settings
+ *         always give the same json.
+ *
+ *         <pre>
+ * JsonStatGenerator generator = JsonStatGenerator.builder()
+ * 		.sizes(20, 1000, 1000)
+ * 		.role(1, "time")
+ * 		.missingRatio(0.05)
+ * 		.build();
+ * try (Writer out = Files.newBufferedWriter(path)) {
+ * 	generator.write(out);
+ * }
+ *         </pre>
+ *
+ *         From the command line:
+ *
+ *         <pre>
+ * java -cp ssb-java.jar ssb.JsonStatGenerator --sizes 20x1000x1000 --role 1=time --missing 0.05 --out cube.json
+ *         </pre>
+ */
+public final class JsonStatGenerator {
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	private static final String USAGE = "usage: JsonStatGenerator --sizes AxBxC [--role DIM=ROLE]... [--missing RATIO]"
+			+ " [--decimals RATIO] [--label-length N] [--seed N] [--out FILE]";
+
+	private final int[] sizes;
+	private final String[] roles;
+	private final int labelLength;
+	private final double missingRatio;
+	private final double decimalRatio;
+	private final long seed;
+
+	private JsonStatGenerator(Builder builder) {
+		this.sizes = builder.sizes.clone();
+		this.roles = builder.roles(sizes.length);
+		this.labelLength = builder.labelLength;
+		this.missingRatio = builder.missingRatio;
+		this.decimalRatio = builder.decimalRatio;
+		this.seed = builder.seed;
+	}
+
+	/**
+	 * Creates a builder for generators.
+	 *
+	 * @return a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Gets the number of values generated: the product of the dimensions
+	 * sizes.
+	 *
+	 * @return the number of values
+	 */
+	public long size() {
+		long size = 1;
+		for (int dimSize : sizes) {
+			size *= dimSize;
+		}
+		return size;
+	}
+
+	/**
+	 * Writes a dataset to a stream, in UTF-8. The stream is flushed, not
+	 * closed.
+	 *
+	 * @param out
+	 *            the stream
+	 * @throws IOException
+	 *             if the stream cannot be written
+	 */
+	public void write(OutputStream out) throws IOException {
+		try (JsonGenerator generator = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			write(generator);
+		}
+	}
+
+	/**
+	 * Writes a dataset to a writer. The writer is flushed, not closed.
+	 *
+	 * @param out
+	 *            the writer
+	 * @throws IOException
+	 *             if the writer cannot be written
+	 */
+	public void write(Writer out) throws IOException {
+		try (JsonGenerator generator = FACTORY.createGenerator(out)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			write(generator);
+		}
+	}
+
+	/**
+	 * Generates a dataset as a String, for small datasets.
+	 *
+	 * @return the json
+	 */
+	public String generate() {
+		StringWriter json = new StringWriter();
+		try {
+			write(json);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return json.toString();
+	}
+
+	/**
+	 * Generates a dataset from the command line, see the class description.
+	 *
+	 * @param args
+	 *            the options
+	 * @throws IOException
+	 *             if the json cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		try {
+			run(args, System.out);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+	}
+
+	/*
+	 **************************************************************************
+	 * package private methods
+	 **************************************************************************
+	 */
+
+	/**
+	 * Runs the command line.
+	 *
+	 * @param args
+	 *            the options
+	 * @param stdout
+	 *            the stream written when there is no --out option
+	 * @throws IOException
+	 *             if the json cannot be written
+	 */
+	static void run(String[] args, OutputStream stdout) throws IOException {
+		Builder builder = builder();
+		String out = null;
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("missing value for " + option);
+			}
+			String value = args[++i];
+			try {
+				switch (option) {
+				case "--sizes":
+					builder.sizes(parseSizes(value));
+					break;
+				case "--role":
+					int eq = value.indexOf('=');
+					if (eq < 0) {
+						throw new IllegalArgumentException("role must be DIM=ROLE: " + value);
+					}
+					builder.role(Integer.parseInt(value.substring(0, eq).trim()), value.substring(eq + 1).trim());
+					break;
+				case "--missing":
+					builder.missingRatio(Double.parseDouble(value));
+					break;
+				case "--decimals":
+					builder.decimalRatio(Double.parseDouble(value));
+					break;
+				case "--label-length":
+					builder.labelLength(Integer.parseInt(value));
+					break;
+				case "--seed":
+					builder.seed(Long.parseLong(value));
+					break;
+				case "--out":
+					out = value;
+					break;
+				default:
+					throw new IllegalArgumentException("unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("not a number for " + option + ": " + value);
+			}
+		}
+		JsonStatGenerator generator = builder.build();
+		if (out == null) {
+			generator.write(stdout);
+		} else {
+			try (OutputStream file = Files.newOutputStream(Paths.get(out))) {
+				generator.write(file);
+			}
+		}
+	}
+
+	/**
+	 * Parses dimensions sizes written as "AxBxC".
+	 *
+	 * @param shape
+	 *            the sizes separated by 'x'
+	 * @return the sizes
+	 */
+	static int[] parseSizes(String shape) {
+		String[] parts = shape.toLowerCase(Locale.ROOT).split("x");
+		int[] sizes = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			sizes[i] = Integer.parseInt(parts[i].trim());
+		}
+		return sizes;
+	}
+
+	/*
+	 **************************************************************************
+	 * private methods
+	 **************************************************************************
+	 */
+
+	// dimension first, so that a parser knows the number of values before
+	// reading them
+	private void write(JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("dataset");
+		writeDimension(generator);
+		generator.writeStringField("label", "Generated dataset " + shape());
+		generator.writeStringField("source", "Statistics Norway");
+		generator.writeStringField("updated", "2016-03-19T09:14:32Z");
+
+		long size = size();
+		generator.writeArrayFieldStart("value");
+		for (long index = 0; index < size; index++) {
+			long bits = mix(index);
+			if (isMissing(bits)) {
+				generator.writeNull();
+			} else if ((bits >>> 32 & 0xffff) < decimalRatio * 0x10000) {
+				// never a whole number, so that it is read as a decimal
+				generator.writeNumber((bits & 0xfffff) / 10 + "." + (1 + (bits >>> 20 & 0x7)));
+			} else {
+				generator.writeNumber(bits & 0xfffff);
+			}
+		}
+		generator.writeEndArray();
+
+		generator.writeObjectFieldStart("status");
+		for (long index = 0; index < size; index++) {
+			if (isMissing(mix(index))) {
+				generator.writeStringField(String.valueOf(index), "..");
+			}
+		}
+		generator.writeEndObject();
+
+		generator.writeEndObject();
+		generator.writeEndObject();
+		generator.flush();
+	}
+
+	private void writeDimension(JsonGenerator generator) throws IOException {
+		generator.writeObjectFieldStart("dimension");
+		for (int d = 0; d < sizes.length; d++) {
+			generator.writeObjectFieldStart(dimId(d));
+			generator.writeStringField("label", "dimension " + d);
+			generator.writeObjectFieldStart("category");
+			generator.writeObjectFieldStart("index");
+			for (int c = 0; c < sizes[d]; c++) {
+				generator.writeNumberField("c" + c, c);
+			}
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("label");
+			for (int c = 0; c < sizes[d]; c++) {
+				generator.writeStringField("c" + c, categoryLabel(d, c));
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+
+		generator.writeArrayFieldStart("id");
+		for (int d = 0; d < sizes.length; d++) {
+			generator.writeString(dimId(d));
+		}
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("size");
+		for (int dimSize : sizes) {
+			generator.writeNumber(dimSize);
+		}
+		generator.writeEndArray();
+
+		// role name to dimension ids, in the order of the dimensions
+		generator.writeObjectFieldStart("role");
+		boolean[] written = new boolean[sizes.length];
+		for (int d = 0; d < sizes.length; d++) {
+			if (roles[d] == null || written[d]) {
+				continue;
+			}
+			generator.writeArrayFieldStart(roles[d]);
+			for (int other = d; other < sizes.length; other++) {
+				if (roles[d].equals(roles[other])) {
+					generator.writeString(dimId(other));
+					written[other] = true;
+				}
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
+		generator.writeEndObject();
+	}
+
+	private static String dimId(int dimIndex) {
+		return "d" + dimIndex;
+	}
+
+	// padded with letters up to the label length
+	private String categoryLabel(int dimIndex, int catIndex) {
+		StringBuilder label = new StringBuilder("category ").append(dimIndex).append('.').append(catIndex);
+		for (int i = 0; label.length() < labelLength; i++) {
+			label.append(i == 0 ? ' ' : (char) ('a' + i % 26));
+		}
+		return label.toString();
+	}
+
+	private String shape() {
+		StringBuilder shape = new StringBuilder();
+		for (int dimSize : sizes) {
+			shape.append(shape.length() > 0 ? "x" : "").append(dimSize);
+		}
+		return shape.toString();
+	}
+
+	private boolean isMissing(long bits) {
+		return (bits >>> 48) < missingRatio * 0x10000;
+	}
+
+	// SplitMix64 of the seed and the position of the value
+	private long mix(long index) {
+		long z = seed + (index + 1) * 0x9e3779b97f4a7c15L;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Builds {@link ssb.JsonStatGenerator JsonStatGenerator} objects.
+	 *
+	 * By default the dataset has the 4 dimensions of dataset 1052 (sizes 1,
+	 * 1, 13, 2), the last dimension has the role 'metric' and the one before
+	 * it the role 'time', 5% of the values are missing, half of the values
+	 * are decimals.
+	 */
+	public static final class Builder {
+
+		private int[] sizes = { 1, 1, 13, 2 };
+		private String[] roles = new String[0];
+		private boolean defaultRoles = true;
+		private int labelLength;
+		private double missingRatio = 0.05;
+		private double decimalRatio = 0.5;
+		private long seed;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets the number of dimensions and their sizes.
+		 *
+		 * @param sizes
+		 *            the size of each dimension, at least 1
+		 * @return this builder
+		 */
+		public Builder sizes(int... sizes) {
+			for (int size : sizes) {
+				if (size < 1) {
+					throw new IllegalArgumentException("dimension size must be at least 1: " + Arrays.toString(sizes));
+				}
+			}
+			this.sizes = sizes.clone();
+			return this;
+		}
+
+		/**
+		 * Sets the role of a dimension. Once a role is set, the default roles
+		 * no longer apply.
+		 *
+		 * @param dimIndex
+		 *            the dimension index
+		 * @param role
+		 *            the role, such as 'time', 'geo' or 'metric', null for none
+		 * @return this builder
+		 */
+		public Builder role(int dimIndex, String role) {
+			if (dimIndex < 0) {
+				throw new IllegalArgumentException("no such dimension: " + dimIndex);
+			}
+			if (defaultRoles) {
+				defaultRoles = false;
+				roles = new String[0];
+			}
+			if (dimIndex >= roles.length) {
+				roles = Arrays.copyOf(roles, dimIndex + 1);
+			}
+			roles[dimIndex] = role;
+			return this;
+		}
+
+		/**
+		 * Sets the minimum length of the category labels; shorter labels are
+		 * padded.
+		 *
+		 * @param labelLength
+		 *            the length, 0 for no padding
+		 * @return this builder
+		 */
+		public Builder labelLength(int labelLength) {
+			if (labelLength < 0) {
+				throw new IllegalArgumentException("label length must not be negative: " + labelLength);
+			}
+			this.labelLength = labelLength;
+			return this;
+		}
+
+		/**
+		 * Sets the share of missing values. Each missing value has the status
+		 * "..".
+		 *
+		 * @param ratio
+		 *            the share, between 0 and 1
+		 * @return this builder
+		 */
+		public Builder missingRatio(double ratio) {
+			this.missingRatio = ratio(ratio);
+			return this;
+		}
+
+		/**
+		 * Sets the share of decimals among the values that are not missing,
+		 * the others being integers.
+		 *
+		 * @param ratio
+		 *            the share, between 0 and 1
+		 * @return this builder
+		 */
+		public Builder decimalRatio(double ratio) {
+			this.decimalRatio = ratio(ratio);
+			return this;
+		}
+
+		/**
+		 * Sets the seed of the values. The default is 0.
+		 *
+		 * @param seed
+		 *            the seed
+		 * @return this builder
+		 */
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * Builds the generator.
+		 *
+		 * @return the generator
+		 */
+		public JsonStatGenerator build() {
+			if (!defaultRoles && roles.length > sizes.length) {
+				throw new IllegalArgumentException("role for no such dimension: " + (roles.length - 1));
+			}
+			return new JsonStatGenerator(this);
+		}
+
+		// 'time' and 'metric' for the last dimensions, like SSB datasets
+		private String[] roles(int nDims) {
+			String[] dimRoles = new String[nDims];
+			if (defaultRoles) {
+				if (nDims >= 2) {
+					dimRoles[nDims - 2] = "time";
+				}
+				if (nDims >= 1) {
+					dimRoles[nDims - 1] = "metric";
+				}
+			} else {
+				System.arraycopy(roles, 0, dimRoles, 0, roles.length);
+			}
+			return dimRoles;
+		}
+
+		private static double ratio(double ratio) {
+			if (!(ratio >= 0 && ratio <= 1)) {
+				throw new IllegalArgumentException("ratio must be between 0 and 1: " + ratio);
+			}
+			return ratio;
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package ssb;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes a dataset back to JSON-stat, in the layout of the SSB api.
+ *
+ * Everything goes straight to a streaming generator: the metadata as read by
+ * the parser, the values from the value store, and the statuses as a sparse
+ * object keyed by index. The dimensions come first so that a parser knows
+ * the number of values before reading them.
+ */
+final class JsonStatWriter {
+
+	private static final JsonFactory FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	private static final int GZIP_BUFFER_SIZE = 1 << 13;
+
+	private JsonStatWriter() {
+	}
+
+	/**
+	 * Writes a dataset. The stream is flushed, not closed.
+	 *
+	 * @param ds
+	 *            the dataset
+	 * @param out
+	 *            the output stream
+	 * @param gzip
+	 *            true to compress the json with gzip
+	 * @throws IOException
+	 *             if the stream fails
+	 */
+	static void write(SSBDataset ds, OutputStream out, boolean gzip) throws IOException {
+		GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+		try (JsonGenerator generator = FACTORY.createGenerator(gzip ? compressed : out, JsonEncoding.UTF8)) {
+			write(ds.getDs(), generator);
+		}
+		if (compressed != null) {
+			compressed.finish();
+		}
+		out.flush();
+	}
+
+	private static void write(Dataset dataset, JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeObjectFieldStart("dataset");
+		generator.writeFieldName("dimension");
+		writeAny(generator, dataset.getDimension());
+		if (dataset.getLabel() != null) {
+			generator.writeStringField("label", dataset.getLabel());
+		}
+		if (dataset.getSource() != null) {
+			generator.writeStringField("source", dataset.getSource());
+		}
+		if (dataset.getUpdated() != null) {
+			generator.writeStringField("updated",
+					DateTimeFormatter.ISO_INSTANT.format(dataset.getUpdated().toInstant()));
+		}
+
+		ValueStore values = dataset.getValues();
+		generator.writeArrayFieldStart("value");
+		for (int index = 0, size = values.size(); index < size; index++) {
+			if (values.isMissing(index)) {
+				generator.writeNull();
+			} else if (values.isDecimal(index)) {
+				generator.writeNumber(values.get(index));
+			} else {
+				generator.writeNumber((long) values.get(index));
+			}
+		}
+		generator.writeEndArray();
+
+		generator.writeObjectFieldStart("status");
+		IOException[] failure = new IOException[1];
+		values.forEachStatus((status, index) -> {
+			if (failure[0] != null) {
+				return;
+			}
+			try {
+				generator.writeFieldName(Integer.toString(index));
+				writeAny(generator, status);
+			} catch (IOException e) {
+				failure[0] = e;
+			}
+		});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		generator.writeEndObject();
+
+		generator.writeEndObject();
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes a value read by the parser: a Map, a List, a String, a Number, a
+	 * Boolean or null.
+	 *
+	 * @param generator
+	 *            the generator
+	 * @param value
+	 *            the value
+	 * @throws IOException
+	 *             if the value cannot be written
+	 */
+	static void writeAny(JsonGenerator generator, Object value) throws IOException {
+		if (value instanceof Map) {
+			generator.writeStartObject();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeAny(generator, entry.getValue());
+			}
+			generator.writeEndObject();
+		} else if (value instanceof List) {
+			generator.writeStartArray();
+			for (Object element : (List<?>) value) {
+				writeAny(generator, element);
+			}
+			generator.writeEndArray();
+		} else if (value instanceof Number) {
+			writeNumber(generator, (Number) value);
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else if (value == null) {
+			generator.writeNull();
+		} else {
+			generator.writeString(String.valueOf(value));
+		}
+	}
+
+	private static void writeNumber(JsonGenerator generator, Number number) throws IOException {
+		if (number instanceof Integer) {
+			generator.writeNumber(number.intValue());
+		} else if (number instanceof Long) {
+			generator.writeNumber(number.longValue());
+		} else {
+			generator.writeNumber(number.toString());
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+package ssb;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Holds the category labels of a dataset, once per dimension.
+ *
+ * The labels of a {@link ssb.Cell Cell} are a lightweight view over this
+ * dictionary: they only keep the position of the value and resolve each label
+ * through the coordinates of that position.
+ */
+final class LabelDictionary {
+
+	private final Object[][] labels;
+	private final int[] sizes;
+	private final int[] strides;
+
+	/**
+	 * Instantiates a new label dictionary.
+	 *
+	 * @param labels
+	 *            the category labels of each dimension
+	 * @param sizes
+	 *            the dimensions sizes
+	 * @param strides
+	 *            the dimensions strides
+	 */
+	LabelDictionary(Object[][] labels, int[] sizes, int[] strides) {
+		this.labels = labels;
+		this.sizes = sizes;
+		this.strides = strides;
+	}
+
+	/**
+	 * Gets the label of a category.
+	 *
+	 * @param dimIndex
+	 *            the dimension index
+	 * @param catIndex
+	 *            the category index
+	 * @return the label
+	 */
+	Object label(int dimIndex, int catIndex) {
+		return labels[dimIndex][catIndex];
+	}
+
+	/**
+	 * Gets the category labels of a dimension.
+	 *
+	 * @param dimIndex
+	 *            the dimension index
+	 * @return the labels, not to be modified
+	 */
+	Object[] labels(int dimIndex) {
+		return labels[dimIndex];
+	}
+
+	/**
+	 * Gets an estimate of the memory retained by the labels.
+	 *
+	 * @return the estimated number of bytes
+	 */
+	long estimatedBytes() {
+		long bytes = 64;
+		for (Object[] dimLabels : labels) {
+			bytes += 16 + 8L * dimLabels.length;
+			for (Object label : dimLabels) {
+				// a String: header, hash and a char array
+				bytes += label instanceof String ? 40 + 2L * ((String) label).length() : 16;
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Gets the labels of the value at a position, one per dimension.
+	 *
+	 * @param index
+	 *            the position of the value
+	 * @return a read-only view of the labels
+	 */
+	List<Object> cellLabels(int index) {
+		return new CellLabels(index);
+	}
+
+	private final class CellLabels extends AbstractList<Object> implements RandomAccess {
+
+		private final int index;
+
+		CellLabels(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public Object get(int dimIndex) {
+			if (dimIndex < 0 || dimIndex >= labels.length) {
+				throw new IndexOutOfBoundsException("Index: " + dimIndex);
+			}
+			return labels[dimIndex][index / strides[dimIndex] % sizes[dimIndex]];
+		}
+
+		@Override
+		public int size() {
+			return labels.length;
+		}
+	}
+
+}
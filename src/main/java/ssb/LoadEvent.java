@@ -0,0 +1,131 @@
+package ssb;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         The measures of a completed phase, see
+ *         {@link ssb.LoadListener LoadListener}. A measure that does not
+ *         apply to the phase, or that the JVM cannot take, is -1.
+ */
+public final class LoadEvent {
+
+	private final LoadPhase phase;
+	private final String source;
+	private final String detail;
+	private final long nanos;
+	private final long bytes;
+	private final long cells;
+	private final long allocatedBytes;
+
+	/**
+	 * Instantiates a new load event.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @param source
+	 *            the url or file read, or the dataset label
+	 * @param detail
+	 *            what the phase did, null if nothing more than its name
+	 * @param nanos
+	 *            the wall time in nanoseconds
+	 * @param bytes
+	 *            the number of bytes read, or -1
+	 * @param cells
+	 *            the number of values or cells handled, or -1
+	 * @param allocatedBytes
+	 *            the number of bytes allocated by the thread, or -1
+	 */
+	LoadEvent(LoadPhase phase, String source, String detail, long nanos, long bytes, long cells,
+			long allocatedBytes) {
+		this.phase = phase;
+		this.source = source;
+		this.detail = detail;
+		this.nanos = nanos;
+		this.bytes = bytes;
+		this.cells = cells;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Gets the phase.
+	 *
+	 * @return the phase
+	 */
+	public LoadPhase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Gets what was loaded: the url or the file for
+	 * {@link ssb.LoadPhase#CONNECT CONNECT} and {@link ssb.LoadPhase#PARSE
+	 * PARSE}, null when parsing a string, and the label of the dataset for the
+	 * other phases.
+	 *
+	 * @return the source
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * Gets what the phase did: the dimensions ids and filters of a table.
+	 *
+	 * @return the detail, null for the load phases
+	 */
+	public String getDetail() {
+		return detail;
+	}
+
+	/**
+	 * Gets the wall time of the phase.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Gets the number of bytes of json read by {@link ssb.LoadPhase#PARSE
+	 * PARSE}, once inflated. For a json string it is its number of chars.
+	 *
+	 * @return the number of bytes, -1 for the other phases
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the number of values parsed or indexed, of cells built, or of
+	 * values in a table. With lazy cells no cell is built when loading.
+	 *
+	 * @return the number of values or cells, -1 for
+	 *         {@link ssb.LoadPhase#CONNECT CONNECT}
+	 */
+	public long getCells() {
+		return cells;
+	}
+
+	/**
+	 * Gets the number of bytes allocated on the heap by the thread running
+	 * the phase. Allocations by other threads, as in a parallel build of the
+	 * cells, are not counted.
+	 *
+	 * @return the number of bytes, -1 if the JVM does not measure them
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return phase + " " + source + (detail != null ? " " + detail : "") + ": " + nanos + " ns, " + bytes
+				+ " bytes, " + cells + " cells, " + allocatedBytes + " allocated bytes";
+	}
+
+}
@@ -0,0 +1,37 @@
+package ssb;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         Receives the measures of each phase of loading a dataset and of
+ *         building its tables, see
+ *         {@link ssb.SSBDataset.Builder#loadListener(LoadListener)}.
+ * 
+ *         The listener is called on the thread that ran the phase, once the
+ *         phase completes; a failed phase is not reported. It must be thread
+ *         safe when datasets are loaded concurrently, fast, and must not
+ *         throw.
+ * 
+ *         <pre>
+ * SSBDataset ds = SSBDataset.builder()
+ * 		.loadListener(event -&gt; log.debug("{} {} ms", event.getPhase(), event.getNanos() / 1e6))
+ * 		.build(url);
+ *         </pre>
+ */
+@FunctionalInterface
+public interface LoadListener {
+
+	/**
+	 * Called when a phase completes.
+	 *
+	 * @param event
+	 *            the measures of the phase
+	 */
+	void phaseCompleted(LoadEvent event);
+
+}
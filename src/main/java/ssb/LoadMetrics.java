@@ -0,0 +1,255 @@
+package ssb;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         A {@link ssb.LoadListener LoadListener} keeping rolling statistics
+ *         of each phase: wall time percentiles, bytes read, cells and
+ *         allocated bytes over the latest events. The statistics can be read
+ *         directly or exposed as JMX MBeans, one per phase, named
+ *         <code>ssb:type=LoadMetrics,name=&lt;name&gt;,phase=&lt;phase&gt;</code>.
+ *
+ *         <pre>
+ * LoadMetrics metrics = new LoadMetrics().register("datasets");
+ * SSBDataset.Builder builder = SSBDataset.builder().loadListener(metrics);
+ * double slowTables = metrics.phase(LoadPhase.TABLE).getP99Millis();
+ *         </pre>
+ */
+public class LoadMetrics implements LoadListener {
+
+	/** The default number of events kept per phase. */
+	public static final int DEFAULT_WINDOW = 1024;
+
+	private final Map<LoadPhase, Phase> phases = new EnumMap<>(LoadPhase.class);
+	private final List<ObjectName> names = new ArrayList<>();
+
+	/**
+	 * Instantiates new load metrics keeping the latest
+	 * {@value #DEFAULT_WINDOW} events of each phase.
+	 */
+	public LoadMetrics() {
+		this(DEFAULT_WINDOW);
+	}
+
+	/**
+	 * Instantiates new load metrics.
+	 *
+	 * @param window
+	 *            the number of events kept per phase, at least 1
+	 */
+	public LoadMetrics(int window) {
+		if (window < 1) {
+			throw new IllegalArgumentException("window must be at least 1: " + window);
+		}
+		for (LoadPhase phase : LoadPhase.values()) {
+			phases.put(phase, new Phase(phase, window));
+		}
+	}
+
+	@Override
+	public void phaseCompleted(LoadEvent event) {
+		phases.get(event.getPhase()).record(event);
+	}
+
+	/**
+	 * Gets the statistics of a phase. The view is live: it follows the
+	 * events as they are recorded.
+	 *
+	 * @param phase
+	 *            the phase
+	 * @return the statistics
+	 */
+	public PhaseMetricsMXBean phase(LoadPhase phase) {
+		return phases.get(phase);
+	}
+
+	/**
+	 * Clears the statistics of all phases.
+	 */
+	public void reset() {
+		for (Phase phase : phases.values()) {
+			phase.reset();
+		}
+	}
+
+	/**
+	 * Registers the statistics of each phase in the platform MBean server.
+	 *
+	 * @param name
+	 *            the name distinguishing these metrics from others
+	 * @return these metrics
+	 * @throws JMException
+	 *             if the name is not valid or is already registered
+	 */
+	public synchronized LoadMetrics register(String name) throws JMException {
+		if (!names.isEmpty()) {
+			throw new IllegalStateException("metrics already registered as " + names.get(0));
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (Phase phase : phases.values()) {
+				ObjectName objectName = new ObjectName(
+						"ssb:type=LoadMetrics,name=" + ObjectName.quote(name) + ",phase=" + phase.getPhase());
+				server.registerMBean(phase, objectName);
+				names.add(objectName);
+			}
+		} catch (JMException e) {
+			unregister();
+			throw e;
+		}
+		return this;
+	}
+
+	/**
+	 * Removes the MBeans of these metrics from the platform MBean server, if
+	 * they are registered.
+	 */
+	public synchronized void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName objectName : names) {
+			try {
+				server.unregisterMBean(objectName);
+			} catch (JMException e) {
+				// already gone
+			}
+		}
+		names.clear();
+	}
+
+	/**
+	 * The rolling window of one phase: the latest measures in ring buffers.
+	 */
+	private static final class Phase implements PhaseMetricsMXBean {
+
+		private static final double NANOS_PER_MILLI = 1e6;
+
+		private final LoadPhase phase;
+		private final long[] nanos;
+		private final long[] bytes;
+		private final long[] cells;
+		private final long[] allocatedBytes;
+		private long count;
+
+		Phase(LoadPhase phase, int window) {
+			this.phase = phase;
+			this.nanos = new long[window];
+			this.bytes = new long[window];
+			this.cells = new long[window];
+			this.allocatedBytes = new long[window];
+		}
+
+		synchronized void record(LoadEvent event) {
+			int i = (int) (count % nanos.length);
+			nanos[i] = event.getNanos();
+			bytes[i] = event.getBytes();
+			cells[i] = event.getCells();
+			allocatedBytes[i] = event.getAllocatedBytes();
+			count++;
+		}
+
+		@Override
+		public String getPhase() {
+			return phase.name();
+		}
+
+		@Override
+		public synchronized long getCount() {
+			return count;
+		}
+
+		@Override
+		public synchronized int getWindowCount() {
+			return (int) Math.min(count, nanos.length);
+		}
+
+		@Override
+		public synchronized double getMeanMillis() {
+			return mean(nanos) / NANOS_PER_MILLI;
+		}
+
+		@Override
+		public double getP50Millis() {
+			return percentile(0.50);
+		}
+
+		@Override
+		public double getP95Millis() {
+			return percentile(0.95);
+		}
+
+		@Override
+		public double getP99Millis() {
+			return percentile(0.99);
+		}
+
+		@Override
+		public double getMaxMillis() {
+			return percentile(1);
+		}
+
+		@Override
+		public synchronized double getMeanBytes() {
+			return mean(bytes);
+		}
+
+		@Override
+		public synchronized double getMeanCells() {
+			return mean(cells);
+		}
+
+		@Override
+		public synchronized double getMeanAllocatedBytes() {
+			return mean(allocatedBytes);
+		}
+
+		@Override
+		public synchronized void reset() {
+			count = 0;
+		}
+
+		// the nearest rank in the sorted window
+		private double percentile(double p) {
+			long[] sorted;
+			synchronized (this) {
+				sorted = Arrays.copyOf(nanos, getWindowCount());
+			}
+			if (sorted.length == 0) {
+				return 0;
+			}
+			Arrays.sort(sorted);
+			int rank = (int) Math.ceil(p * sorted.length);
+			return sorted[Math.max(0, rank - 1)] / NANOS_PER_MILLI;
+		}
+
+		// the measures that are not -1
+		private double mean(long[] measures) {
+			int n = getWindowCount();
+			long sum = 0;
+			int measured = 0;
+			for (int i = 0; i < n; i++) {
+				if (measures[i] >= 0) {
+					sum += measures[i];
+					measured++;
+				}
+			}
+			return measured > 0 ? (double) sum / measured : 0;
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package ssb;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         The phases of loading and reading a dataset reported to a
+ *         {@link ssb.LoadListener LoadListener}.
+ */
+public enum LoadPhase {
+
+	/**
+	 * Opening the connection to the url of a dataset, until the response
+	 * headers are received.
+	 */
+	CONNECT,
+
+	/**
+	 * Reading and parsing the json, or the header of a snapshot. The json of
+	 * an url is parsed as bytes arrive, so this phase includes the download
+	 * of the body.
+	 */
+	PARSE,
+
+	/** Computing the strides and the category labels of the dimensions. */
+	INDEX,
+
+	/** Building the cells, or their lazy view. */
+	CELLS,
+
+	/**
+	 * Building a table, see
+	 * {@link ssb.SSBDataset#tableResult(int, int, java.util.Map) tableResult}.
+	 */
+	TABLE;
+
+}
@@ -0,0 +1,55 @@
+package ssb;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * A {@link ssb.ValueFormatter ValueFormatter} backed by a
+ * {@link java.text.NumberFormat NumberFormat}.
+ *
+ * NumberFormat is not thread-safe: each thread gets its own instance, created
+ * once and reused.
+ */
+final class NumberValueFormatter implements ValueFormatter {
+
+	/** The formatter for the default locale. */
+	static final NumberValueFormatter DEFAULT = new NumberValueFormatter(null);
+
+	/** The locale, null for the default locale at the time of formatting. */
+	private final Locale locale;
+
+	private final ThreadLocal<LocalFormat> localFormat = new ThreadLocal<>();
+
+	/**
+	 * Instantiates a new number value formatter.
+	 *
+	 * @param locale
+	 *            the locale, null for the default locale
+	 */
+	NumberValueFormatter(Locale locale) {
+		this.locale = locale;
+	}
+
+	@Override
+	public String format(double value) {
+		Locale current = locale != null ? locale : Locale.getDefault(Locale.Category.FORMAT);
+		LocalFormat format = localFormat.get();
+		if (format == null || !format.locale.equals(current)) {
+			format = new LocalFormat(current);
+			localFormat.set(format);
+		}
+		return format.numberFormat.format(value);
+	}
+
+	private static final class LocalFormat {
+
+		private final Locale locale;
+		private final NumberFormat numberFormat;
+
+		LocalFormat(Locale locale) {
+			this.locale = locale;
+			this.numberFormat = NumberFormat.getInstance(locale);
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package ssb;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         The JMX view of one phase of a {@link ssb.LoadMetrics LoadMetrics}.
+ *         The statistics are taken over a rolling window of the latest
+ *         events; they are 0 while the window is empty, and the byte means
+ *         only count the events that measured bytes.
+ */
+public interface PhaseMetricsMXBean {
+
+	/**
+	 * Gets the name of the phase.
+	 *
+	 * @return the phase
+	 */
+	String getPhase();
+
+	/**
+	 * Gets the number of events since the start or the last reset.
+	 *
+	 * @return the number of events
+	 */
+	long getCount();
+
+	/**
+	 * Gets the number of events in the window.
+	 *
+	 * @return the number of events
+	 */
+	int getWindowCount();
+
+	/**
+	 * Gets the mean wall time.
+	 *
+	 * @return the time in milliseconds
+	 */
+	double getMeanMillis();
+
+	/**
+	 * Gets the median wall time.
+	 *
+	 * @return the time in milliseconds
+	 */
+	double getP50Millis();
+
+	/**
+	 * Gets the 95th percentile of the wall time.
+	 *
+	 * @return the time in milliseconds
+	 */
+	double getP95Millis();
+
+	/**
+	 * Gets the 99th percentile of the wall time.
+	 *
+	 * @return the time in milliseconds
+	 */
+	double getP99Millis();
+
+	/**
+	 * Gets the longest wall time.
+	 *
+	 * @return the time in milliseconds
+	 */
+	double getMaxMillis();
+
+	/**
+	 * Gets the mean number of bytes read.
+	 *
+	 * @return the number of bytes
+	 */
+	double getMeanBytes();
+
+	/**
+	 * Gets the mean number of values or cells.
+	 *
+	 * @return the number of values or cells
+	 */
+	double getMeanCells();
+
+	/**
+	 * Gets the mean number of bytes allocated by the thread.
+	 *
+	 * @return the number of bytes
+	 */
+	double getMeanAllocatedBytes();
+
+	/**
+	 * Clears the window and the count.
+	 */
+	void reset();
+
+}
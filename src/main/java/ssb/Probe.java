@@ -0,0 +1,108 @@
+package ssb;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures a phase for a {@link ssb.LoadListener LoadListener}.
+ *
+ * Without a listener the probe is a shared instance that does nothing: no
+ * clock is read, no event is created and the thread bean is never loaded.
+ */
+final class Probe {
+
+	/** The probe used when there is no listener. */
+	private static final Probe NONE = new Probe(null, null, null, 0, 0);
+
+	private final LoadListener listener;
+	private final LoadPhase phase;
+	private final Object source;
+	private final long start;
+	private final long startAllocated;
+
+	private Probe(LoadListener listener, LoadPhase phase, Object source, long start, long startAllocated) {
+		this.listener = listener;
+		this.phase = phase;
+		this.source = source;
+		this.start = start;
+		this.startAllocated = startAllocated;
+	}
+
+	/**
+	 * Starts measuring a phase.
+	 *
+	 * @param listener
+	 *            the listener, null for none
+	 * @param phase
+	 *            the phase
+	 * @param source
+	 *            the url, file or label of the dataset, turned into a string
+	 *            only when the phase completes
+	 * @return the probe
+	 */
+	static Probe start(LoadListener listener, LoadPhase phase, Object source) {
+		if (listener == null) {
+			return NONE;
+		}
+		long allocated = Allocation.bytes();
+		return new Probe(listener, phase, source, System.nanoTime(), allocated);
+	}
+
+	/**
+	 * Ends the phase and reports it.
+	 *
+	 * @param bytes
+	 *            the number of bytes read, or -1
+	 * @param cells
+	 *            the number of values or cells handled, or -1
+	 */
+	void stop(long bytes, long cells) {
+		stop(bytes, cells, null);
+	}
+
+	/**
+	 * Ends the phase and reports it.
+	 *
+	 * @param bytes
+	 *            the number of bytes read, or -1
+	 * @param cells
+	 *            the number of values or cells handled, or -1
+	 * @param detail
+	 *            what the phase did, or null
+	 */
+	void stop(long bytes, long cells, String detail) {
+		if (listener == null) {
+			return;
+		}
+		long nanos = System.nanoTime() - start;
+		long allocated = startAllocated >= 0 ? Allocation.bytes() - startAllocated : -1;
+		listener.phaseCompleted(new LoadEvent(phase, source != null ? source.toString() : null, detail, nanos,
+				bytes, cells, allocated));
+	}
+
+	// loaded on the first measure only
+	private static final class Allocation {
+
+		private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+		private static com.sun.management.ThreadMXBean threads() {
+			try {
+				java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+				if (threads instanceof com.sun.management.ThreadMXBean) {
+					com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+					if (allocations.isThreadAllocatedMemorySupported()
+							&& allocations.isThreadAllocatedMemoryEnabled()) {
+						return allocations;
+					}
+				}
+			} catch (LinkageError | SecurityException e) {
+				// not measured on this JVM
+			}
+			return null;
+		}
+
+		static long bytes() {
+			return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+		}
+	}
+
+}
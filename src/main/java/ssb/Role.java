@@ -0,0 +1,66 @@
+package ssb;
+
+import java.util.List;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         A role of the dimensions of a dataset, such as 'time', 'geo' or
+ *         'metric', resolved when the dataset is loaded. Immutable.
+ */
+public final class Role {
+
+	/** The role of the time dimensions. */
+	public static final String TIME = "time";
+
+	/** The role of the geographical dimensions. */
+	public static final String GEO = "geo";
+
+	/** The role of the dimensions of the measured contents. */
+	public static final String METRIC = "metric";
+
+	private final String name;
+	private final List<String> dimensionsIds;
+
+	/**
+	 * Instantiates a new role.
+	 *
+	 * @param name
+	 *            the name of the role
+	 * @param dimensionsIds
+	 *            the ids of the dimensions having this role, read-only
+	 */
+	Role(String name, List<String> dimensionsIds) {
+		this.name = name;
+		this.dimensionsIds = dimensionsIds;
+	}
+
+	/**
+	 * Gets the name of this role.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the dimensions having this role.
+	 *
+	 * @return the dimensions ids, read-only
+	 */
+	public List<String> getDimensionsIds() {
+		return dimensionsIds;
+	}
+
+	@Override
+	public String toString() {
+		return name + "=" + dimensionsIds;
+	}
+
+}
@@ -1,19 +1,30 @@
 package ssb;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
 import java.net.URL;
-import java.text.NumberFormat;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
 
 /**
@@ -66,21 +77,55 @@ import com.google.common.collect.Sets;
  */
 public class SSBDataset {
 
+	/** The number of values below which cells are never built in parallel. */
+	private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	/**
+	 * The estimated memory of a built cell: the map entry, the n-tuple key,
+	 * the cell, its labels view and the boxed value.
+	 */
+	private static final int CELL_BYTES = 128;
+
 	/** The cells. */
 	private Map<List<Integer>, Cell> cells;
 
 	/** The ds. */
 	private Dataset ds;
 
-	/** The ds node. */
-	private JsonNode dsNode;
-
-	/** The mapper. */
-	private ObjectMapper mapper;
-
 	/** The ntuples. */
 	private Set<List<Integer>> ntuples;
 
+	/** The dimensions sizes. */
+	private int[] sizes;
+
+	/**
+	 * The strides: the distance in the values between two consecutive
+	 * categories of each dimension.
+	 */
+	private int[] strides;
+
+	/** The category labels of each dimension. */
+	private LabelDictionary labels;
+
+	/** The dimensions, resolved from the json. */
+	private Dimension[] dimensions;
+
+	/** The position of each dimension id. */
+	private Map<String, Integer> dimensionIndexes;
+
+	/** The read-only views of the dimensions metadata. */
+	private List<Dimension> dimensionList;
+	private List<Integer> sizeList;
+	private List<String> idList;
+	private List<String> labelList;
+
+	/** The roles, and the dimensions ids by role as in the json, or null. */
+	private List<Role> roles;
+	private Map<String, Object> roleMap;
+
+	/** The listener of the load and table phases, null for none. */
+	private LoadListener listener;
+
 	/*
 	 **************************************************************************
 	 * public getters
@@ -118,20 +163,20 @@ public class SSBDataset {
 	/**
 	 * gets the list of the dimensions sizes
 	 *
-	 * @return the list of the dimensions sizes
+	 * @return the list of the dimensions sizes, read-only
 	 */
 	// dimensions
 	public List<Integer> getDimensionsSizes() {
-		return (List) ds.getDimension().get("size");
+		return sizeList;
 	}
 
 	/**
 	 * gets the list of the dimensions ids
 	 * 
-	 * @return the list of the dimensions ids
+	 * @return the list of the dimensions ids, read-only
 	 */
 	public List<String> getDimensionsIds() {
-		return (List) ds.getDimension().get("id");
+		return idList;
 	}
 
 	/**
@@ -142,20 +187,52 @@ public class SSBDataset {
 	 * @return the id for this dimension
 	 */
 	public String getDimensionId(int dimIndex) {
-		return getDimensionsIds().get(dimIndex);
+		return dimensions[dimIndex].getId();
 	}
 
 	/**
 	 * gets the dimensions' labels
 	 *
-	 * @return the dimensions' labels
+	 * @return the dimensions' labels, read-only
 	 */
 	public List<String> getDimensionsLabels() {
-		return getDimensionsIds().stream().map(dimId -> getDimensionLabel(dimId)).collect(Collectors.toList());
+		return labelList;
+	}
+
+	/**
+	 * gets the dimensions, resolved when this dataset was loaded
+	 *
+	 * @return the dimensions, in order, read-only
+	 */
+	public List<Dimension> dimensions() {
+		return dimensionList;
+	}
+
+	/**
+	 * gets a resolved dimension by index
+	 *
+	 * @param dimIndex
+	 *            the index of this dimension
+	 * @return the dimension
+	 */
+	public Dimension dimension(int dimIndex) {
+		return dimensions[dimIndex];
 	}
 
 	/**
-	 * gets the dimension by id
+	 * gets a resolved dimension by id
+	 *
+	 * @param dimId
+	 *            the dimension id
+	 * @return the dimension, null if there is no such dimension
+	 */
+	public Dimension dimension(String dimId) {
+		int dimIndex = getDimensionIndex(dimId);
+		return dimIndex >= 0 ? dimensions[dimIndex] : null;
+	}
+
+	/**
+	 * gets the dimension by id, as in the json
 	 *
 	 * @param dimId
 	 *            the dimension id
@@ -166,15 +243,14 @@ public class SSBDataset {
 	}
 
 	/**
-	 * gets the dimension by index
+	 * gets the dimension by index, as in the json
 	 *
 	 * @param dimIndex
 	 *            the index of this dimension
 	 * @return the dimension
 	 */
 	public Map<String, Object> getDimension(int dimIndex) {
-		String dimId = getDimensionsIds().get(dimIndex);
-		return getDimension(dimId);
+		return getDimension(getDimensionId(dimIndex));
 	}
 
 	/**
@@ -182,11 +258,11 @@ public class SSBDataset {
 	 *
 	 * @param dimId
 	 *            the dimension id
-	 * @return the dimension index
+	 * @return the dimension index, -1 if there is no such dimension
 	 */
 	public int getDimensionIndex(String dimId) {
-		List<String> dimIds = (List<String>) ds.getDimension().get("id");
-		return dimId.indexOf(dimId);
+		Integer dimIndex = dimensionIndexes.get(dimId);
+		return dimIndex != null ? dimIndex : -1;
 	}
 
 	/**
@@ -197,8 +273,7 @@ public class SSBDataset {
 	 * @return the dimension label
 	 */
 	public String getDimensionLabel(String dimId) {
-		Map<String, Object> dimension = getDimension(dimId);
-		return (String) dimension.get("label");
+		return dimension(dimId).getLabel();
 	}
 
 	/**
@@ -209,8 +284,7 @@ public class SSBDataset {
 	 * @return the dimension label
 	 */
 	public String getDimensionLabel(int dimIndex) {
-		String dimId = getDimensionsIds().get(dimIndex);
-		return getDimensionLabel(dimId);
+		return dimensions[dimIndex].getLabel();
 	}
 
 	/**
@@ -218,13 +292,10 @@ public class SSBDataset {
 	 *
 	 * @param dimId
 	 *            the dimension id
-	 * @return the category labels for this dimension
+	 * @return the category labels for this dimension, read-only
 	 */
 	public List<Object> getDimensionCategoryLabels(String dimId) {
-		Map<String, Object> dimension = getDimension(dimId);
-		Map<String, Object> category = (Map) dimension.get("category");
-		Map<String, Object> labels = (Map) category.get("label");
-		return labels.values().stream().collect(Collectors.toList());
+		return dimension(dimId).getCategoryLabels();
 	}
 
 	/**
@@ -232,11 +303,46 @@ public class SSBDataset {
 	 *
 	 * @param dimIndex
 	 *            the dimension index
-	 * @return the category labels for this dimension
+	 * @return the category labels for this dimension, read-only
 	 */
 	public List<Object> getDimensionCategoryLabels(int dimIndex) {
-		String dimId = getDimensionsIds().get(dimIndex);
-		return getDimensionCategoryLabels(dimId);
+		return dimensions[dimIndex].getCategoryLabels();
+	}
+
+	/**
+	 * Gets the category codes for this dimension by id
+	 *
+	 * @param dimId
+	 *            the dimension id
+	 * @return the category codes for this dimension, by category index
+	 */
+	public List<String> getDimensionCategoryCodes(String dimId) {
+		return dimension(dimId).getCategoryCodes();
+	}
+
+	/**
+	 * Gets the category codes for this dimension by index
+	 *
+	 * @param dimIndex
+	 *            the dimension index
+	 * @return the category codes for this dimension, by category index
+	 */
+	public List<String> getDimensionCategoryCodes(int dimIndex) {
+		return dimensions[dimIndex].getCategoryCodes();
+	}
+
+	/**
+	 * Gets the index of a category by code
+	 *
+	 * @param dimId
+	 *            the dimension id
+	 * @param code
+	 *            the category code
+	 * @return the category index, -1 if there is no such dimension or category
+	 */
+	public int getCategoryIndex(String dimId, String code) {
+		Dimension dimension = dimension(dimId);
+		return dimension != null ? dimension.getCategoryIndex(code) : -1;
 	}
 
 	/**
@@ -255,10 +361,20 @@ public class SSBDataset {
 	/**
 	 * Gets the dimensions' roles
 	 *
-	 * @return the dimensions' roles
+	 * @return the dimensions ids by role, read-only, null if the dataset has
+	 *         no roles
 	 */
 	public Map<String, Object> getDimensionsRoles() {
-		return (Map<String, Object>) ds.getDimension().get("role");
+		return roleMap;
+	}
+
+	/**
+	 * Gets the roles, resolved when this dataset was loaded
+	 *
+	 * @return the roles, read-only
+	 */
+	public List<Role> roles() {
+		return roles;
 	}
 
 	/**
@@ -269,8 +385,7 @@ public class SSBDataset {
 	 * @return the role for this dimension
 	 */
 	public String getDimensionRole(int dimIndex) {
-		String dimId = getDimensionsIds().get(dimIndex);
-		return getDimensionRole(dimId);
+		return dimensions[dimIndex].getRole();
 	}
 
 	/**
@@ -281,17 +396,8 @@ public class SSBDataset {
 	 * @return the role for this dimension
 	 */
 	public String getDimensionRole(String dimId) {
-		String returnRole = null;
-		Map<String, Object> roles = getDimensionsRoles();
-		for (Object role : roles.keySet()) {
-			List<String> dimensions = (List<String>) roles.get(role);
-			for (String currentDimId : dimensions) {
-				if (dimId.equals(currentDimId)) {
-					returnRole = role.toString();
-				}
-			}
-		}
-		return returnRole;
+		Dimension dimension = dimension(dimId);
+		return dimension != null ? dimension.getRole() : null;
 	}
 
 	/**
@@ -304,8 +410,12 @@ public class SSBDataset {
 	 * the n-tuple [0,7,1] gets the {@link ssb.Cell Cell} for the 1st category
 	 * in the 1st dimension, the 8th category in the 2nd dimension and the 2nd
 	 * category in the 3rd dimension.
+	 * 
+	 * When the dataset is built with lazy cells, the Map is a read-only view
+	 * and the {@link ssb.Cell Cell} is built when it is requested.
 	 *
 	 * @see ssb.Cell
+	 * @see ssb.SSBDataset.Builder#lazyCells(boolean)
 	 *
 	 * @return the cells as a Map
 	 */
@@ -372,53 +482,688 @@ public class SSBDataset {
 	public List<List<Object>> table(int rowDimIndex, int colDimIndex, Map<Integer, Integer> filters)
 			throws SSBDatasetException {
 
+		return tableResult(rowDimIndex, colDimIndex, filters).toList(ValueFormatter.numberFormat());
+	}
+
+	/**
+	 * gets a table with primitive values / default filtering
+	 *
+	 * @param rowDimIndex
+	 *            the index of the dimension for the rows
+	 * @param colDimIndex
+	 *            the index of the dimension for the columns
+	 * 
+	 *            <br>
+	 *            <br>
+	 *            In this overload no filters are passed as arguments. As a
+	 *            result the 1st categories of the dimensions that are not rows
+	 *            nor columns are taken by default.
+	 * 
+	 * @return the table
+	 * @throws SSBDatasetException
+	 *             the SSB dataset exception
+	 */
+	public TableResult tableResult(int rowDimIndex, int colDimIndex) throws SSBDatasetException {
+		return tableResult(rowDimIndex, colDimIndex, new HashMap<Integer, Integer>());
+	}
+
+	/**
+	 * gets a table with primitive values / custom filtering
+	 * 
+	 * <br>
+	 * <br>
+	 * Same arguments as {@link #table(int, int, Map)}, but the values are
+	 * kept as primitives and formatted only on demand, see
+	 * {@link ssb.TableResult#toList(ValueFormatter)}.
+	 *
+	 * @param rowDimIndex
+	 *            the index of the dimension for the rows
+	 * @param colDimIndex
+	 *            the index of the dimension for the columns
+	 * @param filters
+	 *            a Map describing filters. Key is the index of the dimension to
+	 *            be used as filter, value is the index of the category.
+	 * @return the table
+	 * @throws SSBDatasetException
+	 *             the SSB dataset exception
+	 */
+	public TableResult tableResult(int rowDimIndex, int colDimIndex, Map<Integer, Integer> filters)
+			throws SSBDatasetException {
+
 		verifyArguments(rowDimIndex, colDimIndex, filters);
+		Probe building = Probe.start(listener, LoadPhase.TABLE, ds.getLabel());
 
-		List<List<Object>> table = new ArrayList<>();
-		List<Integer> selectionList = Collections.nCopies(getDimensionsSizes().size(), 0).stream()
-				.collect(Collectors.toList());
-		// selectionList.set(rowDimIndex, rowIndex);
+		int rowDimSize = sizes[rowDimIndex];
+		int colDimSize = sizes[colDimIndex];
+		int rowStride = strides[rowDimIndex];
+		int colStride = strides[colDimIndex];
 
-		int rowDimSize = getDimensionsSizes().get(rowDimIndex);
-		int colDimSize = getDimensionsSizes().get(colDimIndex);
+		// 1st category by default for the dimensions that are not filtered
+		int base = 0;
+		for (Map.Entry<Integer, Integer> filter : filters.entrySet()) {
+			base += filter.getValue() * strides[filter.getKey()];
+		}
 
-		// first row/header
-		List<Object> tableHeader = new ArrayList<>();
-		tableHeader.add("");
-		for (int i = 0; i < colDimSize; i++) {
-			selectionList.set(colDimIndex, i);
-			tableHeader.add(cells.get(selectionList).getLabels().get(colDimIndex));
+		ValueStore values = ds.getValues();
+		double[] tableValues = new double[rowDimSize * colDimSize];
+		BitSet missing = new BitSet();
+		Object[] statuses = new Object[tableValues.length];
+		int offset = 0;
+		for (int i = 0; i < rowDimSize; i++) {
+			int index = base + i * rowStride;
+			for (int j = 0; j < colDimSize; j++, index += colStride, offset++) {
+				tableValues[offset] = values.get(index);
+				if (values.isMissing(index)) {
+					missing.set(offset);
+					statuses[offset] = values.status(index);
+				}
+			}
 		}
-		table.add(tableHeader);
 
-		// next rows
-		NumberFormat numberFormat = NumberFormat.getInstance();
-		selectionList = Collections.nCopies(getDimensionsSizes().size(), 0).stream().collect(Collectors.toList());
+		TableResult result = new TableResult(
+				Collections.unmodifiableList(Arrays.asList(labels.labels(rowDimIndex))),
+				Collections.unmodifiableList(Arrays.asList(labels.labels(colDimIndex))), tableValues, missing,
+				statuses);
+		building.stop(-1, tableValues.length,
+				listener != null ? tableDetail(rowDimIndex, colDimIndex, filters) : null);
+		return result;
+	}
 
-		// set filters
-		for (Integer filterIndex : filters.keySet()) {
-			selectionList.set(filterIndex, filters.get(filterIndex));
+	/**
+	 * gets a value as a primitive, without boxing
+	 * 
+	 * <br>
+	 * <br>
+	 * Example for a dataset with 3 dimensions: <br>
+	 * valueAt(0, 7, 1) gets the value for the 1st category in the 1st
+	 * dimension, the 8th category in the 2nd dimension and the 2nd category in
+	 * the 3rd dimension.
+	 *
+	 * @param coords
+	 *            the index of the category in each dimension
+	 * @return the value, NaN if the value is missing
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such value
+	 */
+	public double valueAt(int... coords) {
+		return ds.getValues().get(indexOf(coords));
+	}
+
+	/**
+	 * checks if a value is missing. The status of a missing value, if any, is
+	 * the value of its {@link ssb.Cell Cell}.
+	 *
+	 * @param coords
+	 *            the index of the category in each dimension
+	 * @return true if the value is missing
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such value
+	 */
+	public boolean isMissing(int... coords) {
+		return ds.getValues().isMissing(indexOf(coords));
+	}
+
+	/**
+	 * gets a value by category codes, as a primitive
+	 * 
+	 * <br>
+	 * <br>
+	 * Example: valueAt(codes) with codes {Tid=2015M08,
+	 * ContentsCode=Arbeidslause4} gets the rate of August 2015. Dimensions with
+	 * a single category may be left out. For repeated queries over the same
+	 * dimensions, see {@link #resolver(String...)}.
+	 *
+	 * @param codes
+	 *            the category code by dimension id
+	 * @return the value, NaN if the value is missing
+	 * @throws IllegalArgumentException
+	 *             if a dimension or a code is unknown, or a dimension with
+	 *             several categories is left out
+	 */
+	public double valueAt(Map<String, String> codes) {
+		return ds.getValues().get(indexOf(codes));
+	}
+
+	/**
+	 * checks if a value is missing, by category codes
+	 *
+	 * @param codes
+	 *            the category code by dimension id
+	 * @return true if the value is missing
+	 * @throws IllegalArgumentException
+	 *             if a dimension or a code is unknown, or a dimension with
+	 *             several categories is left out
+	 * @see #valueAt(Map)
+	 */
+	public boolean isMissing(Map<String, String> codes) {
+		return ds.getValues().isMissing(indexOf(codes));
+	}
+
+	/**
+	 * visits all values of this dataset in storage order, the last dimension
+	 * varying fastest. Nothing is allocated per value.
+	 * 
+	 * <br>
+	 * <br>
+	 * Example: sum of the values that are not missing <br>
+	 * double[] sum = new double[1]; <br>
+	 * ds.forEachCell((coords, value, missing) -&gt; { if (!missing) sum[0] +=
+	 * value; });
+	 *
+	 * @param visitor
+	 *            the visitor
+	 */
+	public void forEachCell(CellVisitor visitor) {
+		ValueStore values = ds.getValues();
+		int[] coords = new int[sizes.length];
+		int size = values.size();
+		for (int index = 0; index < size; index++) {
+			visitor.visit(coords, values.get(index), values.isMissing(index));
+			for (int i = coords.length - 1; i >= 0; i--) {
+				if (++coords[i] < sizes[i]) {
+					break;
+				}
+				coords[i] = 0;
+			}
 		}
+	}
 
-		for (int i = 0; i < rowDimSize; i++) {
-			selectionList.set(rowDimIndex, i);
-			List<Object> tableRow = new ArrayList<>();
-			tableRow.add(cells.get(selectionList).getLabels().get(rowDimIndex));
-			for (int j = 0; j < colDimSize; j++) {
-				selectionList.set(colDimIndex, j);
-
-				Object value = cells.get(selectionList).getValue();
-				if (value instanceof Number) {
-					tableRow.add(numberFormat.format(value));
-				} else {
-					tableRow.add(value);
+	/**
+	 * gets the position of a value in the values of this dataset
+	 * 
+	 * <br>
+	 * <br>
+	 * Values are ordered row-major, the last dimension varying fastest.
+	 *
+	 * @param coords
+	 *            the index of the category in each dimension
+	 * @return the position of the value
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such value
+	 */
+	public int indexOf(int... coords) {
+		if (coords.length != sizes.length) {
+			throw new IndexOutOfBoundsException("Expected " + sizes.length + " coordinates, got " + coords.length);
+		}
+		int index = 0;
+		for (int i = 0; i < coords.length; i++) {
+			if (coords[i] < 0 || coords[i] >= sizes[i]) {
+				throw new IndexOutOfBoundsException("No category " + coords[i] + " in dimension " + i);
+			}
+			index += coords[i] * strides[i];
+		}
+		return index;
+	}
+
+	/**
+	 * gets the position of a value by category codes
+	 *
+	 * @param codes
+	 *            the category code by dimension id
+	 * @return the position of the value
+	 * @throws IllegalArgumentException
+	 *             if a dimension or a code is unknown, or a dimension with
+	 *             several categories is left out
+	 * @see #valueAt(Map)
+	 */
+	public int indexOf(Map<String, String> codes) {
+		return indexOf(codes, null);
+	}
+
+	/**
+	 * prepares the reading of values by category codes in some dimensions,
+	 * the other dimensions having a single category
+	 *
+	 * @param dimIds
+	 *            the ids of the dimensions given by each query
+	 * @return the resolver
+	 * @throws IllegalArgumentException
+	 *             if a dimension is unknown or repeated, or a dimension with
+	 *             several categories is left out
+	 * @see #resolver(List, Map)
+	 */
+	public CoordinateResolver resolver(String... dimIds) {
+		return resolver(Arrays.asList(dimIds), Collections.<String, String> emptyMap());
+	}
+
+	/**
+	 * prepares the reading of values by category codes in some dimensions,
+	 * with a fixed category in others
+	 * 
+	 * <br>
+	 * <br>
+	 * The dimensions are resolved once: each query only looks up its codes.
+	 * Dimensions neither given nor fixed must have a single category.
+	 *
+	 * @param dimIds
+	 *            the ids of the dimensions given by each query, in the order
+	 *            of the codes
+	 * @param fixed
+	 *            the category code of other dimensions, by dimension id
+	 * @return the resolver
+	 * @throws IllegalArgumentException
+	 *             if a dimension is unknown or repeated, a fixed code is
+	 *             unknown, or a dimension with several categories is left out
+	 */
+	public CoordinateResolver resolver(List<String> dimIds, Map<String, String> fixed) {
+		Dimension[] resolved = new Dimension[dimIds.size()];
+		BitSet given = new BitSet(sizes.length);
+		for (int i = 0; i < resolved.length; i++) {
+			resolved[i] = dimension(dimIds.get(i));
+			if (resolved[i] == null) {
+				throw new IllegalArgumentException("No dimension " + dimIds.get(i));
+			}
+			if (given.get(resolved[i].getIndex()) || fixed.containsKey(dimIds.get(i))) {
+				throw new IllegalArgumentException("Dimension " + dimIds.get(i) + " given twice");
+			}
+			given.set(resolved[i].getIndex());
+		}
+		return new CoordinateResolver(ds.getValues(), resolved, indexOf(fixed, given));
+	}
+
+	/**
+	 * gets the index of the category in each dimension for a position in the
+	 * values of this dataset. This is the reverse of {@link #indexOf(int...)}.
+	 *
+	 * @param index
+	 *            the position of the value
+	 * @param out
+	 *            an array, as long as the number of dimensions, receiving the
+	 *            index of the category in each dimension
+	 * @return out
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no such value
+	 */
+	public int[] coordsOf(int index, int[] out) {
+		if (index < 0 || index >= ds.getValues().size()) {
+			throw new IndexOutOfBoundsException("No value at index " + index);
+		}
+		if (out.length != sizes.length) {
+			throw new IndexOutOfBoundsException("Expected an array of length " + sizes.length);
+		}
+		for (int i = 0; i < strides.length; i++) {
+			out[i] = index / strides[i];
+			index -= out[i] * strides[i];
+		}
+		return out;
+	}
+
+	/**
+	 * gets a new dataset where some dimensions are collapsed
+	 * 
+	 * <br>
+	 * <br>
+	 * Each value of the new dataset combines the values of this dataset that
+	 * share the same categories for the remaining dimensions. Missing values
+	 * are skipped; a combination with no value is missing, except for
+	 * {@link ssb.Aggregator#COUNT COUNT}. The new dataset keeps the metadata
+	 * of the remaining dimensions. Large aggregations run in parallel on the
+	 * common fork/join pool.
+	 * 
+	 * <br>
+	 * <br>
+	 * Example for a dataset with 3 dimensions: <br>
+	 * aggregate(Collections.singleton(1), Aggregator.SUM); <br>
+	 * This creates a dataset with the 1st and the 3rd dimensions, each value
+	 * being the sum over all categories of the 2nd dimension.
+	 *
+	 * @param dimsToCollapse
+	 *            the indexes of the dimensions to collapse
+	 * @param aggregator
+	 *            how values are combined
+	 * @return the new dataset
+	 * @throws SSBDatasetException
+	 *             if a dimension does not exist
+	 */
+	public SSBDataset aggregate(Set<Integer> dimsToCollapse, Aggregator aggregator) throws SSBDatasetException {
+		BitSet collapsed = new BitSet(sizes.length);
+		for (int dimIndex : dimsToCollapse) {
+			if (dimIndex < 0 || dimIndex >= sizes.length) {
+				throw new SSBDatasetException("Arguments for aggregate: no such dimension " + dimIndex);
+			}
+			collapsed.set(dimIndex);
+		}
+
+		// metadata of the remaining dimensions
+		Map<String, Object> dimension = new LinkedHashMap<>(ds.getDimension());
+		List<String> ids = new ArrayList<>();
+		List<Integer> keptSizes = new ArrayList<>();
+		for (int dimIndex = 0; dimIndex < sizes.length; dimIndex++) {
+			if (collapsed.get(dimIndex)) {
+				dimension.remove(getDimensionId(dimIndex));
+			} else {
+				ids.add(getDimensionId(dimIndex));
+				keptSizes.add(sizes[dimIndex]);
+			}
+		}
+		dimension.put("id", ids);
+		dimension.put("size", keptSizes);
+		if (getDimensionsRoles() != null) {
+			Map<String, Object> roles = new LinkedHashMap<>();
+			for (Map.Entry<String, Object> role : getDimensionsRoles().entrySet()) {
+				List<String> roleIds = new ArrayList<>((List<String>) role.getValue());
+				roleIds.retainAll(ids);
+				if (!roleIds.isEmpty()) {
+					roles.put(role.getKey(), roleIds);
 				}
+			}
+			dimension.put("role", roles);
+		}
+
+		Dataset aggregated = new Dataset();
+		aggregated.setLabel(ds.getLabel());
+		aggregated.setSource(ds.getSource());
+		aggregated.setUpdated(ds.getUpdated());
+		aggregated.setDimension(dimension);
+		aggregated.setValues(new Aggregation(ds.getValues(), sizes, strides, collapsed, aggregator).run());
+		return new SSBDataset(aggregated, cells instanceof CellMap, 1, null, listener);
+	}
+
+	/**
+	 * gets a view of this dataset restricted to some categories of some
+	 * dimensions
+	 * 
+	 * <br>
+	 * <br>
+	 * The view shares the values of this dataset, nothing is copied. It keeps
+	 * all dimensions: a dimension restricted to one category has size 1.
+	 * Metadata of the restricted dimensions only list the selected categories,
+	 * in the order of the selection. The cells of the view are built on
+	 * demand, see {@link ssb.SSBDataset.Builder#lazyCells(boolean)}.
+	 * 
+	 * <br>
+	 * <br>
+	 * Example for a dataset with 3 dimensions: <br>
+	 * Map&lt;Integer, int[]&gt; selection = new HashMap&lt;&gt;(); <br>
+	 * selection.put(1, new int[] { 0, 2, 4 }); <br>
+	 * selection.put(2, new int[] { 7 }); <br>
+	 * SSBDataset view = ds.slice(selection); <br>
+	 * This keeps the 1st, 3rd and 5th categories of the 2nd dimension and the
+	 * 8th category of the 3rd dimension.
+	 *
+	 * @param selection
+	 *            a Map describing the selection. Key is the index of the
+	 *            dimension, value is the indexes of the categories to keep.
+	 * @return the view
+	 * @throws SSBDatasetException
+	 *             if a dimension or a category does not exist, or a selection
+	 *             is empty or has duplicates
+	 */
+	public SSBDataset slice(Map<Integer, int[]> selection) throws SSBDatasetException {
+		int[][] categories = new int[sizes.length][];
+		for (int dimIndex = 0; dimIndex < sizes.length; dimIndex++) {
+			categories[dimIndex] = IntStream.range(0, sizes[dimIndex]).toArray();
+		}
 
+		Map<String, Object> dimension = new LinkedHashMap<>(ds.getDimension());
+		List<Integer> viewSizes = new ArrayList<>(getDimensionsSizes());
+		for (Map.Entry<Integer, int[]> entry : selection.entrySet()) {
+			int dimIndex = entry.getKey();
+			int[] catIndexes = entry.getValue().clone();
+			verifySelection(dimIndex, catIndexes);
+			categories[dimIndex] = catIndexes;
+			viewSizes.set(dimIndex, catIndexes.length);
+			dimension.put(getDimensionId(dimIndex), sliceDimension(dimIndex, catIndexes));
+		}
+		dimension.put("size", viewSizes);
+
+		Dataset view = new Dataset();
+		view.setLabel(ds.getLabel());
+		view.setSource(ds.getSource());
+		view.setUpdated(ds.getUpdated());
+		view.setDimension(dimension);
+		view.setValues(new SliceValueStore(ds.getValues(), sizes, strides, categories));
+		return new SSBDataset(view, true, 1, null, listener);
+	}
+
+	/**
+	 * gets this dataset with the new categories of a newer dataset appended,
+	 * typically the new periods of the time dimension
+	 * 
+	 * <br>
+	 * <br>
+	 * The newer dataset has the same dimensions, and the same categories in
+	 * all of them but one: the grown dimension. There it has the new
+	 * categories, with or without some of the categories already here. Only
+	 * these need to be downloaded and parsed. In the result, the new
+	 * categories follow the categories of this dataset; the values of the
+	 * categories found in the newer dataset are taken from it, the others are
+	 * kept. This dataset is left untouched.
+	 * 
+	 * <br>
+	 * <br>
+	 * The values are copied into a new store, since the new categories are
+	 * interleaved with the others unless the grown dimension comes first. With
+	 * lazy cells nothing else is built. With eager cells, the cells of the
+	 * values kept are reused and only the cells of the values taken from the
+	 * newer dataset are built; the map of the cells is still copied.
+	 * 
+	 * <br>
+	 * <br>
+	 * Example: <br>
+	 * SSBDataset newer = reader.read(new URL(url + "&amp;Tid=2016M02")); <br>
+	 * SSBDataset merged = ds.mergeAppend(newer); <br>
+	 * The dimension Tid of the merged dataset ends with 2016M02.
+	 *
+	 * @param newer
+	 *            the newer dataset
+	 * @return the merged dataset, or the newer dataset if no category changed
+	 * @throws SSBDatasetException
+	 *             if the dimensions differ, or the categories differ in more
+	 *             than one dimension: the whole dataset must be reloaded
+	 */
+	public SSBDataset mergeAppend(SSBDataset newer) throws SSBDatasetException {
+		if (!idList.equals(newer.idList)) {
+			throw new SSBDatasetException("Arguments for mergeAppend: the dimensions differ, reload the dataset");
+		}
+		int grown = -1;
+		for (int dimIndex = 0; dimIndex < sizes.length; dimIndex++) {
+			if (!Arrays.equals(dimensions[dimIndex].codes(), newer.dimensions[dimIndex].codes())) {
+				if (grown >= 0) {
+					throw new SSBDatasetException(
+							"Arguments for mergeAppend: categories differ in several dimensions, reload the dataset");
+				}
+				grown = dimIndex;
+			}
+		}
+		if (grown < 0) {
+			return newer;
+		}
+
+		// the categories of the grown dimension: these, then the new ones
+		Dimension olderDim = dimensions[grown];
+		Dimension newerDim = newer.dimensions[grown];
+		if (Arrays.asList(olderDim.codes()).contains(null) || Arrays.asList(newerDim.codes()).contains(null)) {
+			throw new SSBDatasetException("Arguments for mergeAppend: categories without code in " + olderDim.getId());
+		}
+		int[] newerCategories = new int[newerDim.getSize()];
+		List<String> codes = new ArrayList<>(olderDim.getCategoryCodes());
+		for (int i = 0; i < newerCategories.length; i++) {
+			int catIndex = olderDim.getCategoryIndex(newerDim.codes()[i]);
+			if (catIndex < 0) {
+				catIndex = codes.size();
+				codes.add(newerDim.codes()[i]);
 			}
-			table.add(tableRow);
+			newerCategories[i] = catIndex;
 		}
+		int outer = 1;
+		for (int dimIndex = 0; dimIndex < grown; dimIndex++) {
+			outer *= sizes[dimIndex];
+		}
+		if ((long) outer * codes.size() * strides[grown] > Integer.MAX_VALUE) {
+			throw new SSBDatasetException("Arguments for mergeAppend: too many values");
+		}
+
+		Map<String, Object> dimension = new LinkedHashMap<>(ds.getDimension());
+		dimension.put(olderDim.getId(), appendCategories(olderDim, newerDim, codes));
+		List<Integer> mergedSizes = new ArrayList<>(sizeList);
+		mergedSizes.set(grown, codes.size());
+		dimension.put("size", mergedSizes);
 
-		return table;
+		Dataset merged = new Dataset();
+		merged.setLabel(newer.ds.getLabel());
+		merged.setSource(newer.ds.getSource());
+		merged.setUpdated(newer.ds.getUpdated() != null ? newer.ds.getUpdated() : ds.getUpdated());
+		merged.setDimension(dimension);
+		ValueStore values = ds.getValues();
+		try {
+			merged.setValues(new Append(values, sizes[grown], newer.ds.getValues(), newerCategories, codes.size(),
+					outer, strides[grown]).run(values.storage()));
+		} catch (IOException e) {
+			throw new SSBDatasetException("SSBDataset mergeAppend: Could not store the values", e);
+		}
+		boolean[] replaced = new boolean[codes.size()];
+		for (int catIndex : newerCategories) {
+			replaced[catIndex] = true;
+		}
+		return new SSBDataset(merged, this, grown, replaced);
+	}
+
+	/*
+	 **************************************************************************
+	 * csv export
+	 **************************************************************************
+	 */
+
+	/**
+	 * Streams this dataset as csv, either as a pivot table or in long format,
+	 * see {@link ssb.ExportSpec ExportSpec}. The values are read in place and
+	 * written through a small buffer: nothing the size of the export is kept
+	 * in memory. The writer is flushed, not closed.
+	 *
+	 * <pre>
+	 * try (Writer out = Files.newBufferedWriter(Paths.get("1052.csv"))) {
+	 * 	ds.writeCsv(out, ExportSpec.longFormat().labels(true).build());
+	 * }
+	 * </pre>
+	 *
+	 * @param out
+	 *            the writer
+	 * @param spec
+	 *            the export
+	 * @throws SSBDatasetException
+	 *             if the dimensions or filters of the spec do not match this
+	 *             dataset, or if the csv cannot be written
+	 */
+	public void writeCsv(Writer out, ExportSpec spec) throws SSBDatasetException {
+		if (spec.isPivot()) {
+			verifyArguments(spec.getRowDimIndex(), spec.getColDimIndex(), spec.getFilters());
+		} else {
+			verifyFilters(-1, -1, spec.getFilters());
+		}
+		try {
+			CsvWriter.write(this, spec, out);
+		} catch (IOException e) {
+			throw new SSBDatasetException("SSBDataset csv: Could not write csv", e);
+		}
+	}
+
+	/**
+	 * Streams this dataset as csv encoded in UTF-8, see
+	 * {@link #writeCsv(Writer, ExportSpec)}. The stream is flushed, not
+	 * closed.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param spec
+	 *            the export
+	 * @throws SSBDatasetException
+	 *             if the dimensions or filters of the spec do not match this
+	 *             dataset, or if the csv cannot be written
+	 */
+	public void writeCsv(OutputStream out, ExportSpec spec) throws SSBDatasetException {
+		writeCsv(new OutputStreamWriter(out, StandardCharsets.UTF_8), spec);
+	}
+
+	/*
+	 **************************************************************************
+	 * JSON-stat export
+	 **************************************************************************
+	 */
+
+	/**
+	 * Writes this dataset as JSON-stat, to be read again by any
+	 * {@link ssb.SSBDatasetReader SSBDatasetReader}. A slice or an aggregate
+	 * is written as a dataset of its own. The stream is flushed, not closed.
+	 *
+	 * <pre>
+	 * ds.slice(selection).writeJsonStat(response.getOutputStream(), true);
+	 * </pre>
+	 *
+	 * @param out
+	 *            the output stream
+	 * @throws SSBDatasetException
+	 *             if the json cannot be written
+	 */
+	public void writeJsonStat(OutputStream out) throws SSBDatasetException {
+		writeJsonStat(out, false);
+	}
+
+	/**
+	 * Writes this dataset as JSON-stat, optionally compressed with gzip, see
+	 * {@link #writeJsonStat(OutputStream)}.
+	 *
+	 * @param out
+	 *            the output stream
+	 * @param gzip
+	 *            true to compress the json with gzip
+	 * @throws SSBDatasetException
+	 *             if the json cannot be written
+	 */
+	public void writeJsonStat(OutputStream out, boolean gzip) throws SSBDatasetException {
+		try {
+			JsonStatWriter.write(this, out, gzip);
+		} catch (IOException e) {
+			throw new SSBDatasetException("SSBDataset JSON-stat: Could not write json", e);
+		}
+	}
+
+	/*
+	 **************************************************************************
+	 * snapshots
+	 **************************************************************************
+	 */
+
+	/**
+	 * Writes this dataset to a binary snapshot, to be reopened with
+	 * {@link #openSnapshot(Path)} without parsing any json.
+	 *
+	 * The snapshot holds the metadata, with each string written once, and the
+	 * values as a block of doubles followed by the missing values bitmap. The
+	 * file is replaced once complete.
+	 *
+	 * <pre>
+	 * ds.writeSnapshot(Paths.get("1052.snapshot"));
+	 * </pre>
+	 *
+	 * @param file
+	 *            the snapshot file
+	 * @throws SSBDatasetException
+	 *             if the snapshot cannot be written
+	 */
+	public void writeSnapshot(Path file) throws SSBDatasetException {
+		try {
+			Snapshot.write(this, file);
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset snapshot: Could not write snapshot to: " + file, e);
+		}
+	}
+
+	/**
+	 * Opens a snapshot written by {@link #writeSnapshot(Path)}.
+	 *
+	 * The values are memory-mapped and read in place: opening a snapshot
+	 * only reads its metadata. The cells are built on demand, see
+	 * {@link ssb.SSBDataset.Builder#openSnapshot(Path)} for other options.
+	 *
+	 * @param file
+	 *            the snapshot file
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the file is not a snapshot or cannot be read
+	 */
+	public static SSBDataset openSnapshot(Path file) throws SSBDatasetException {
+		return builder().lazyCells(true).openSnapshot(file);
 	}
 
 	/*
@@ -436,21 +1181,7 @@ public class SSBDataset {
 	 *             the SSB dataset exception
 	 */
 	public SSBDataset(String datasetString) throws SSBDatasetException {
-		mapper = new ObjectMapper();
-
-		try {
-			dsNode = mapper.readValue(datasetString, JsonNode.class).get("dataset");
-			if (dsNode == null) {
-				throw new SSBDatasetException("SSBDataset constructor: Could not read from field 'dataset'");
-			}
-		} catch (Exception e) {
-			throw new SSBDatasetException("SSBDataset constructor: Could not retrieve dataset from: " + datasetString,
-					e);
-		}
-
-		createDataset();
-		createNtuples();
-		createCells();
+		this(SSBDatasetReader.DEFAULT.parse(datasetString), false);
 	}
 
 	/**
@@ -467,20 +1198,409 @@ public class SSBDataset {
 	 **************************************************************************
 	 */
 	public SSBDataset(URL datasetUrl) throws SSBDatasetException {
-		mapper = new ObjectMapper();
+		this(SSBDatasetReader.DEFAULT.load(datasetUrl), false);
+	}
 
-		try {
-			dsNode = mapper.readValue(datasetUrl, JsonNode.class).get("dataset");
-			if (dsNode == null) {
-				throw new SSBDatasetException("SSBDataset constructor: Could not read from field 'dataset'");
+	/**
+	 * Instantiates a new SSB dataset from a parsed dataset.
+	 *
+	 * @param ds
+	 *            the parsed dataset
+	 * @param lazyCells
+	 *            true to build the cells on demand, false to build them all
+	 *            now
+	 */
+	SSBDataset(Dataset ds, boolean lazyCells) {
+		this(ds, lazyCells, 1, null, null);
+	}
+
+	/**
+	 * Instantiates a new SSB dataset from a parsed dataset, building the
+	 * cells in parallel.
+	 *
+	 * @param ds
+	 *            the parsed dataset
+	 * @param lazyCells
+	 *            true to build the cells on demand, false to build them all
+	 *            now
+	 * @param parallelism
+	 *            the number of tasks building the cells
+	 * @param executor
+	 *            the executor running the tasks, null for the common fork/join
+	 *            pool
+	 * @param listener
+	 *            the listener of the load and table phases, null for none
+	 */
+	SSBDataset(Dataset ds, boolean lazyCells, int parallelism, Executor executor, LoadListener listener) {
+		this.ds = ds;
+		this.listener = listener;
+		Probe indexing = Probe.start(listener, LoadPhase.INDEX, ds.getLabel());
+		createDimensions();
+		indexing.stop(-1, ds.getValues().size());
+		Probe building = Probe.start(listener, LoadPhase.CELLS, ds.getLabel());
+		if (lazyCells) {
+			cells = new CellMap(this);
+		} else if (parallelism > 1 && ds.getValues().size() >= PARALLEL_THRESHOLD) {
+			createCells(parallelism, executor != null ? executor : ForkJoinPool.commonPool());
+		} else {
+			createNtuples();
+			createCells();
+		}
+		building.stop(-1, lazyCells ? 0 : cells.size());
+	}
+
+	/**
+	 * Instantiates a new SSB dataset merged by
+	 * {@link #mergeAppend(SSBDataset)}, with the cells of the older dataset
+	 * if they are built.
+	 *
+	 * @param ds
+	 *            the merged dataset
+	 * @param older
+	 *            the dataset the categories were appended to
+	 * @param grown
+	 *            the index of the grown dimension
+	 * @param replaced
+	 *            for each category of the grown dimension, true if its values
+	 *            were taken from the newer dataset
+	 */
+	private SSBDataset(Dataset ds, SSBDataset older, int grown, boolean[] replaced) {
+		this.ds = ds;
+		this.listener = older.listener;
+		Probe indexing = Probe.start(listener, LoadPhase.INDEX, ds.getLabel());
+		createDimensions();
+		indexing.stop(-1, ds.getValues().size());
+		Probe building = Probe.start(listener, LoadPhase.CELLS, ds.getLabel());
+		if (older.cells instanceof CellMap) {
+			cells = new CellMap(this);
+			building.stop(-1, 0);
+		} else {
+			building.stop(-1, appendCells(older, grown, replaced));
+		}
+	}
+
+	/**
+	 * Loads a dataset from an uri without blocking the calling thread, see
+	 * {@link ssb.SSBDataset.Builder#loadAsync(URI, Executor)}.
+	 *
+	 * <pre>
+	 * CompletableFuture&lt;SSBDataset&gt; future = SSBDataset.loadAsync(uri, executor);
+	 * </pre>
+	 *
+	 * @param datasetUri
+	 *            the dataset uri
+	 * @param executor
+	 *            the executor running the download and the parsing
+	 * @return the future dataset
+	 */
+	public static CompletableFuture<SSBDataset> loadAsync(URI datasetUri, Executor executor) {
+		return builder().loadAsync(datasetUri, executor);
+	}
+
+	/*
+	 **************************************************************************
+	 * builder
+	 **************************************************************************
+	 */
+
+	/**
+	 * Creates a builder for datasets with custom loading options.
+	 *
+	 * <pre>
+	 * SSBDataset ds = SSBDataset.builder().lazyCells(true).build(url);
+	 * </pre>
+	 *
+	 * @return a new builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builds {@link ssb.SSBDataset SSBDataset} objects with custom loading
+	 * options.
+	 */
+	public static final class Builder {
+
+		private boolean lazyCells;
+		private int parallelism = 1;
+		private Executor executor;
+		private int connectTimeout;
+		private int readTimeout;
+		private Path cacheDirectory;
+		private ValueStorage valueStorage = ValueStorage.HEAP;
+		private int readBufferSize = UrlLoader.DEFAULT_BUFFER_SIZE;
+		private long maxResponseSize;
+		private LoadListener loadListener;
+		private boolean bufferRecycling = true;
+
+		private Builder() {
+		}
+
+		/**
+		 * Sets whether cells are built on demand.
+		 *
+		 * When true, {@link ssb.SSBDataset#cells() cells()} is a read-only
+		 * view that builds each {@link ssb.Cell Cell} when it is requested:
+		 * loading no longer depends on the number of cells. When false (the
+		 * default) all cells are built when the dataset is loaded.
+		 *
+		 * @param lazyCells
+		 *            true to build the cells on demand
+		 * @return this builder
+		 */
+		public Builder lazyCells(boolean lazyCells) {
+			this.lazyCells = lazyCells;
+			return this;
+		}
+
+		/**
+		 * Sets the number of tasks building the cells of a dataset.
+		 *
+		 * With a parallelism above 1, the cells of large datasets are built
+		 * by that many tasks, each one handling a range of consecutive
+		 * values. The result is the same as with a sequential build. The
+		 * default is 1, everything runs on the calling thread.
+		 *
+		 * @param parallelism
+		 *            the number of tasks, at least 1
+		 * @return this builder
+		 */
+		public Builder parallelism(int parallelism) {
+			if (parallelism < 1) {
+				throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
 			}
-		} catch (Exception e) {
-			throw new SSBDatasetException("SSBDataset constructor: Could not retrieve dataset from: " + datasetUrl, e);
+			this.parallelism = parallelism;
+			return this;
 		}
 
-		createDataset();
-		createNtuples();
-		createCells();
+		/**
+		 * Sets the executor running the tasks of a parallel build. The default
+		 * is the common fork/join pool.
+		 *
+		 * @param executor
+		 *            the executor
+		 * @return this builder
+		 * @see #parallelism(int)
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Sets the timeout for connecting to the url of a dataset. The default
+		 * is 0, no timeout.
+		 *
+		 * @param millis
+		 *            the timeout in milliseconds, 0 for none
+		 * @return this builder
+		 */
+		public Builder connectTimeout(int millis) {
+			if (millis < 0) {
+				throw new IllegalArgumentException("timeout must not be negative: " + millis);
+			}
+			this.connectTimeout = millis;
+			return this;
+		}
+
+		/**
+		 * Sets the timeout for reading from the url of a dataset, when no data
+		 * arrives. The default is 0, no timeout.
+		 *
+		 * @param millis
+		 *            the timeout in milliseconds, 0 for none
+		 * @return this builder
+		 */
+		public Builder readTimeout(int millis) {
+			if (millis < 0) {
+				throw new IllegalArgumentException("timeout must not be negative: " + millis);
+			}
+			this.readTimeout = millis;
+			return this;
+		}
+
+		/**
+		 * Sets a directory where http responses are cached, keyed by url.
+		 *
+		 * The next load of the same url sends the validators of the cached
+		 * response (ETag, Last-Modified or the 'updated' value of the
+		 * dataset). If the server answers 304 Not Modified, the dataset is
+		 * read from the cache instead of being downloaded again. The default
+		 * is no cache.
+		 *
+		 * @param directory
+		 *            the cache directory, created if needed, null for no cache
+		 * @return this builder
+		 */
+		public Builder cacheDirectory(Path directory) {
+			this.cacheDirectory = directory;
+			return this;
+		}
+
+		/**
+		 * Sets the size of the buffer used to read from the url of a dataset.
+		 * The default is 64 KB.
+		 *
+		 * @param bytes
+		 *            the size of the buffer in bytes, at least 1
+		 * @return this builder
+		 */
+		public Builder readBufferSize(int bytes) {
+			if (bytes < 1) {
+				throw new IllegalArgumentException("buffer size must be at least 1: " + bytes);
+			}
+			this.readBufferSize = bytes;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum size of the json read from the url of a dataset.
+		 * Loading fails as soon as more bytes arrive. For a compressed
+		 * response the limit applies to the inflated json. The default is 0,
+		 * no limit.
+		 *
+		 * @param bytes
+		 *            the maximum size in bytes, 0 for no limit
+		 * @return this builder
+		 */
+		public Builder maxResponseSize(long bytes) {
+			if (bytes < 0) {
+				throw new IllegalArgumentException("maximum size must not be negative: " + bytes);
+			}
+			this.maxResponseSize = bytes;
+			return this;
+		}
+
+		/**
+		 * Sets where the values of a dataset are stored. The default is
+		 * {@link ssb.ValueStorage#HEAP HEAP}.
+		 *
+		 * With {@link ssb.ValueStorage#DIRECT DIRECT} or
+		 * {@link ssb.ValueStorage#MAPPED MAPPED} the values are kept outside of
+		 * the heap, in chunks so that they are not limited to 2 GB. All
+		 * accessors read through the storage unchanged.
+		 *
+		 * <pre>
+		 * SSBDataset ds = SSBDataset.builder().valueStorage(ValueStorage.MAPPED).lazyCells(true).build(url);
+		 * </pre>
+		 *
+		 * @param valueStorage
+		 *            the storage of the values
+		 * @return this builder
+		 */
+		public Builder valueStorage(ValueStorage valueStorage) {
+			if (valueStorage == null) {
+				throw new IllegalArgumentException("valueStorage must not be null");
+			}
+			this.valueStorage = valueStorage;
+			return this;
+		}
+
+		/**
+		 * Sets a listener receiving the measures of each phase of a load:
+		 * connecting, parsing, indexing and building the cells, and of each
+		 * table built from the dataset or from its slices and aggregates. The
+		 * default is no listener, and then nothing is measured.
+		 *
+		 * @param listener
+		 *            the listener, null for none
+		 * @return this builder
+		 * @see ssb.LoadMetrics
+		 */
+		public Builder loadListener(LoadListener listener) {
+			this.loadListener = listener;
+			return this;
+		}
+
+		/**
+		 * Sets whether the read buffers of a thread are reused from one
+		 * dataset to the next. The default is true, which saves allocating
+		 * them on each read; turn it off when datasets are read by many
+		 * short-lived threads.
+		 *
+		 * @param bufferRecycling
+		 *            true to reuse the read buffers
+		 * @return this builder
+		 */
+		public Builder bufferRecycling(boolean bufferRecycling) {
+			this.bufferRecycling = bufferRecycling;
+			return this;
+		}
+
+		/**
+		 * Creates a reader with the options of this builder. Later changes to
+		 * the builder do not affect the reader.
+		 *
+		 * @return the reader, thread-safe
+		 */
+		public SSBDatasetReader reader() {
+			DatasetParser parser = new DatasetParser(valueStorage, bufferRecycling);
+			UrlLoader loader = new UrlLoader(connectTimeout, readTimeout, cacheDirectory, parser, readBufferSize,
+					maxResponseSize);
+			return new SSBDatasetReader(lazyCells, parallelism, executor, loadListener, parser, loader);
+		}
+
+		/**
+		 * Builds a dataset from a json string.
+		 *
+		 * @param datasetString
+		 *            the dataset string
+		 * @return the dataset
+		 * @throws SSBDatasetException
+		 *             the SSB dataset exception
+		 * @see #reader()
+		 */
+		public SSBDataset build(String datasetString) throws SSBDatasetException {
+			return reader().read(datasetString);
+		}
+
+		/**
+		 * Builds a dataset from an url.
+		 *
+		 * @param datasetUrl
+		 *            the dataset url
+		 * @return the dataset
+		 * @throws SSBDatasetException
+		 *             the SSB dataset exception
+		 * @see #reader()
+		 */
+		public SSBDataset build(URL datasetUrl) throws SSBDatasetException {
+			return reader().read(datasetUrl);
+		}
+
+		/**
+		 * Opens a snapshot written by
+		 * {@link ssb.SSBDataset#writeSnapshot(Path) writeSnapshot}, with the
+		 * values memory-mapped.
+		 *
+		 * @param file
+		 *            the snapshot file
+		 * @return the dataset
+		 * @throws SSBDatasetException
+		 *             if the file is not a snapshot or cannot be read
+		 */
+		public SSBDataset openSnapshot(Path file) throws SSBDatasetException {
+			return reader().openSnapshot(file);
+		}
+
+		/**
+		 * Loads a dataset from an uri without blocking the calling thread.
+		 *
+		 * The download and the parsing run on the given executor; the json is
+		 * parsed as bytes arrive. If loading fails, the future completes
+		 * exceptionally with an {@link ssb.SSBDatasetException
+		 * SSBDatasetException}.
+		 *
+		 * @param datasetUri
+		 *            the dataset uri
+		 * @param loadExecutor
+		 *            the executor running the download and the parsing
+		 * @return the future dataset
+		 */
+		public CompletableFuture<SSBDataset> loadAsync(URI datasetUri, Executor loadExecutor) {
+			return reader().loadAsync(datasetUri, loadExecutor);
+		}
 	}
 
 	/**
@@ -497,7 +1617,7 @@ public class SSBDataset {
 	 */
 	Object getValue(List<Integer> ntuple) {
 		int index = ntupleToIndex(ntuple);
-		return ds.getValue().get(index);
+		return ds.getValues().box(index);
 	}
 
 	/**
@@ -518,11 +1638,8 @@ public class SSBDataset {
 	 */
 	int ntupleToIndex(List<Integer> ntuple) {
 		int index = 0;
-		int mult = 1;
-		int nDims = getDimensionsSizes().size();
-		for (int i = 0; i < nDims; i++) {
-			mult *= (i > 0) ? getDimensionsSizes().get(nDims - i) : 1;
-			index += mult * ntuple.get(nDims - i - 1);
+		for (int i = 0; i < strides.length; i++) {
+			index += strides[i] * ntuple.get(i);
 		}
 		return index;
 	}
@@ -536,21 +1653,267 @@ public class SSBDataset {
 	 */
 	Object getStatus(List<Integer> ntuple) {
 		int index = ntupleToIndex(ntuple);
-		String key = String.valueOf(index);
-		return ds.getStatus().get(key);
+		return ds.getValues().status(index);
 	}
 
+	/**
+	 * Creates the cell for the value at a position.
+	 *
+	 * @param index
+	 *            the position of the value
+	 * @return the cell
+	 */
+	Cell createCell(int index) {
+		ValueStore values = ds.getValues();
+		Object value = values.isMissing(index) ? values.status(index) : values.box(index);
+		return new Cell(labels.cellLabels(index), value);
+	}
+
+	/**
+	 * Gets an estimate of the memory retained by this dataset: the values, the
+	 * category labels and the cells, if they are built.
+	 *
+	 * @return the estimated number of bytes
+	 */
+	long estimatedBytes() {
+		long bytes = ds.getValues().estimatedBytes() + labels.estimatedBytes();
+		for (Dimension dimension : dimensions) {
+			bytes += dimension.estimatedBytes();
+		}
+		if (!(cells instanceof CellMap)) {
+			bytes += (long) cells.size() * (CELL_BYTES + 4 * sizes.length);
+		}
+		return bytes;
+	}
 	/*
 	 **************************************************************************
 	 * private methods
 	 **************************************************************************
 	 */
 
-	/**
-	 * Creates the dataset.
-	 */
-	private void createDataset() {
-		ds = mapper.convertValue(dsNode, Dataset.class);
+	// the dimensions, their strides, category labels and roles
+	private void createDimensions() {
+		Map<String, Object> json = ds.getDimension();
+		List<String> dimIds = (List) json.get("id");
+		List<Number> dimSizes = (List) json.get("size");
+		sizes = new int[dimIds.size()];
+		strides = new int[dimIds.size()];
+		int stride = 1;
+		for (int i = sizes.length - 1; i >= 0; i--) {
+			sizes[i] = dimSizes.get(i).intValue();
+			strides[i] = stride;
+			stride *= sizes[i];
+		}
+
+		// the last role of a dimension wins
+		Map<String, String> dimRoles = new HashMap<>();
+		List<Role> roleList = new ArrayList<>();
+		if (json.get("role") instanceof Map) {
+			Map<String, Object> roleView = new LinkedHashMap<>();
+			for (Map.Entry<String, Object> role : ((Map<String, Object>) json.get("role")).entrySet()) {
+				List<String> roleDimIds = role.getValue() instanceof List
+						? Collections.unmodifiableList(new ArrayList<>((List<String>) role.getValue()))
+						: Collections.<String> emptyList();
+				roleList.add(new Role(role.getKey(), roleDimIds));
+				roleView.put(role.getKey(), roleDimIds);
+				for (String dimId : roleDimIds) {
+					dimRoles.put(dimId, role.getKey());
+				}
+			}
+			roleMap = Collections.unmodifiableMap(roleView);
+		}
+		roles = Collections.unmodifiableList(roleList);
+
+		dimensions = new Dimension[sizes.length];
+		dimensionIndexes = new HashMap<>(sizes.length * 4 / 3 + 1);
+		Object[][] dimLabels = new Object[sizes.length][];
+		String[] labelArray = new String[sizes.length];
+		for (int i = 0; i < sizes.length; i++) {
+			dimensions[i] = createDimension(i, dimIds.get(i), dimRoles.get(dimIds.get(i)));
+			dimensionIndexes.putIfAbsent(dimIds.get(i), i);
+			dimLabels[i] = dimensions[i].labels();
+			labelArray[i] = dimensions[i].getLabel();
+		}
+		labels = new LabelDictionary(dimLabels, sizes, strides);
+		dimensionList = Collections.unmodifiableList(Arrays.asList(dimensions));
+		Integer[] sizeArray = new Integer[sizes.length];
+		for (int i = 0; i < sizes.length; i++) {
+			sizeArray[i] = sizes[i];
+		}
+		sizeList = Collections.unmodifiableList(Arrays.asList(sizeArray));
+		idList = Collections.unmodifiableList(new ArrayList<>(dimIds));
+		labelList = Collections.unmodifiableList(Arrays.asList(labelArray));
+	}
+
+	// the label of a category is found by its code, the code itself when
+	// there are no labels
+	private Dimension createDimension(int dimIndex, String dimId, String role) {
+		Map<String, Object> dimension = getDimension(dimId);
+		Map<String, Object> category = dimension != null && dimension.get("category") instanceof Map
+				? (Map) dimension.get("category") : null;
+		Map<String, Object> catLabels = category != null && category.get("label") instanceof Map
+				? (Map) category.get("label") : null;
+		Map<String, Object> catUnits = category != null && category.get("unit") instanceof Map
+				? (Map) category.get("unit") : null;
+		List<String> readCodes = readCategoryCodes(category);
+		String[] codes = new String[sizes[dimIndex]];
+		Object[] dimLabels = new Object[sizes[dimIndex]];
+		Map<String, Object>[] units = new Map[sizes[dimIndex]];
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = i < readCodes.size() ? readCodes.get(i) : null;
+			if (codes[i] != null) {
+				dimLabels[i] = catLabels != null ? catLabels.get(codes[i]) : codes[i];
+				if (catUnits != null && catUnits.get(codes[i]) instanceof Map) {
+					units[i] = (Map) catUnits.get(codes[i]);
+				}
+			}
+		}
+		String label = dimension != null && dimension.get("label") != null ? dimension.get("label").toString() : null;
+		return new Dimension(dimIndex, dimId, label, strides[dimIndex], role, codes, dimLabels, units);
+	}
+
+	// metadata of a grown dimension: labels and units of the new categories
+	// are taken from the newer dataset
+	private Map<String, Object> appendCategories(Dimension older, Dimension newer, List<String> codes) {
+		Map<String, Object> dimension = ds.getDimension().get(older.getId()) instanceof Map
+				? new LinkedHashMap<>((Map<String, Object>) ds.getDimension().get(older.getId()))
+				: new LinkedHashMap<>();
+		Map<String, Object> category = dimension.get("category") instanceof Map
+				? new LinkedHashMap<>((Map<String, Object>) dimension.get("category")) : new LinkedHashMap<>();
+		Map<String, Object> index = new LinkedHashMap<>();
+		Map<String, Object> catLabels = new LinkedHashMap<>();
+		Map<String, Object> catUnits = new LinkedHashMap<>();
+		for (int i = 0; i < codes.size(); i++) {
+			String code = codes.get(i);
+			Category from = i < older.getSize() ? older.getCategory(i) : newer.getCategory(code);
+			index.put(code, i);
+			catLabels.put(code, from.getLabel());
+			if (from.getUnit() != null) {
+				catUnits.put(code, from.getUnit());
+			}
+		}
+		category.put("index", index);
+		category.put("label", catLabels);
+		if (!catUnits.isEmpty()) {
+			category.put("unit", catUnits);
+		}
+		dimension.put("category", category);
+		return dimension;
+	}
+
+	// the category codes of a dimension, by category index
+	private static List<String> readCategoryCodes(Map<String, Object> category) {
+		Object index = category == null ? null : category.get("index");
+		if (index instanceof Map) {
+			Map<String, Object> codes = (Map) index;
+			String[] sorted = new String[codes.size()];
+			for (Map.Entry<String, Object> code : codes.entrySet()) {
+				sorted[((Number) code.getValue()).intValue()] = code.getKey();
+			}
+			return Arrays.asList(sorted);
+		}
+		if (index instanceof List) {
+			return (List) index;
+		}
+		Map<String, Object> catLabels = category == null ? null : (Map) category.get("label");
+		return catLabels == null ? Collections.<String> emptyList() : new ArrayList<>(catLabels.keySet());
+	}
+
+	// copy of a dimension keeping only some categories, in a new order
+	private Map<String, Object> sliceDimension(int dimIndex, int[] catIndexes) {
+		List<String> codes = getDimensionCategoryCodes(dimIndex);
+		Map<String, Object> dimension = new LinkedHashMap<>(getDimension(dimIndex));
+		Map<String, Object> category = (Map) dimension.get("category");
+		if (category == null || codes.contains(null)) {
+			return dimension;
+		}
+
+		Map<String, Object> slicedCategory = new LinkedHashMap<>(category);
+		Map<String, Object> index = new LinkedHashMap<>();
+		for (int i = 0; i < catIndexes.length; i++) {
+			index.put(codes.get(catIndexes[i]), i);
+		}
+		slicedCategory.put("index", index);
+		for (String key : Arrays.asList("label", "unit")) {
+			if (category.get(key) instanceof Map) {
+				Map<String, Object> byCode = (Map) category.get(key);
+				Map<String, Object> slicedByCode = new LinkedHashMap<>();
+				for (String code : index.keySet()) {
+					if (byCode.containsKey(code)) {
+						slicedByCode.put(code, byCode.get(code));
+					}
+				}
+				slicedCategory.put(key, slicedByCode);
+			}
+		}
+		dimension.put("category", slicedCategory);
+		return dimension;
+	}
+
+	// the position of the value at some codes, skipping some dimensions
+	private int indexOf(Map<String, String> codes, BitSet skipped) {
+		int index = 0;
+		int given = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			if (skipped != null && skipped.get(i)) {
+				continue;
+			}
+			String dimId = dimensions[i].getId();
+			String code = codes.get(dimId);
+			if (code == null) {
+				if (sizes[i] != 1) {
+					throw new IllegalArgumentException("No category given for dimension " + dimId);
+				}
+				continue;
+			}
+			int catIndex = dimensions[i].getCategoryIndex(code);
+			if (catIndex < 0) {
+				throw new IllegalArgumentException("No category " + code + " in dimension " + dimId);
+			}
+			index += catIndex * strides[i];
+			given++;
+		}
+		if (given != codes.size()) {
+			for (String dimId : codes.keySet()) {
+				if (getDimensionIndex(dimId) < 0) {
+					throw new IllegalArgumentException("No dimension " + dimId);
+				}
+			}
+		}
+		return index;
+	}
+
+	private void verifySelection(int dimIndex, int[] catIndexes) throws SSBDatasetException {
+		if (dimIndex < 0 || dimIndex >= sizes.length) {
+			throw new SSBDatasetException("Arguments for slice: no such dimension " + dimIndex);
+		}
+		if (catIndexes.length == 0) {
+			throw new SSBDatasetException("Arguments for slice: empty selection for dimension " + dimIndex);
+		}
+		BitSet selected = new BitSet(sizes[dimIndex]);
+		for (int catIndex : catIndexes) {
+			if (catIndex < 0 || catIndex >= sizes[dimIndex]) {
+				throw new SSBDatasetException("Arguments for slice: wrong selection argument, no such category");
+			}
+			if (selected.get(catIndex)) {
+				throw new SSBDatasetException("Arguments for slice: wrong selection argument, duplicate category");
+			}
+			selected.set(catIndex);
+		}
+	}
+
+	// the dimensions by id, as in table(Tid, ContentsCode, {Kjonn=0, Alder=0})
+	private String tableDetail(int rowDimIndex, int colDimIndex, Map<Integer, Integer> filters) {
+		StringBuilder detail = new StringBuilder("table(").append(getDimensionId(rowDimIndex)).append(", ")
+				.append(getDimensionId(colDimIndex)).append(", {");
+		for (int i = 0; i < sizes.length; i++) {
+			if (i != rowDimIndex && i != colDimIndex) {
+				Integer catIndex = filters.get(i);
+				detail.append(detail.charAt(detail.length() - 1) == '{' ? "" : ", ").append(getDimensionId(i))
+						.append('=').append(catIndex != null ? catIndex : 0);
+			}
+		}
+		return detail.append("})").toString();
 	}
 
 	// Build n-tuples representing all possible combinations of the categories
@@ -581,16 +1944,75 @@ public class SSBDataset {
 	private void createCells() {
 		cells = new HashMap<>();
 		for (List<Integer> ntuple : ntuples) {
-			List<Object> labels = new ArrayList<>();
-			for (int dimIndex = 0; dimIndex < ntuple.size(); dimIndex++) {
-				int catIndex = ntuple.get(dimIndex);
-				String dimId = getDimensionId(dimIndex);
-				labels.add(getDimensionCategoryLabels(dimId).get(catIndex));
+			cells.put(ntuple, createCell(ntupleToIndex(ntuple)));
+		}
+	}
+
+	// the cells of the older dataset for the values kept, its n-tuples being
+	// the same; new cells for the values of the replaced categories
+	private int appendCells(SSBDataset older, int grown, boolean[] replaced) {
+		int size = ds.getValues().size();
+		Map<List<Integer>, Cell> merged = new HashMap<>(size * 4 / 3 + 1);
+		for (Map.Entry<List<Integer>, Cell> cell : older.cells.entrySet()) {
+			if (!replaced[cell.getKey().get(grown)]) {
+				merged.put(cell.getKey(), cell.getValue());
+			}
+		}
+		int built = 0;
+		int run = strides[grown];
+		int[] coords = new int[sizes.length];
+		for (int start = 0; start < size; start += run) {
+			if (!replaced[start / run % sizes[grown]]) {
+				continue;
 			}
+			coordsOf(start, coords);
+			for (int index = start; index < start + run; index++) {
+				Integer[] ntuple = new Integer[coords.length];
+				for (int i = 0; i < coords.length; i++) {
+					ntuple[i] = coords[i];
+				}
+				merged.put(Collections.unmodifiableList(Arrays.asList(ntuple)), createCell(index));
+				built++;
+				for (int i = coords.length - 1; i > grown; i--) {
+					if (++coords[i] < sizes[i]) {
+						break;
+					}
+					coords[i] = 0;
+				}
+			}
+		}
+		cells = merged;
+		return built;
+	}
 
-			Object value = getValue(ntuple) != null ? getValue(ntuple) : getStatus(ntuple);
-			cells.put(ntuple, new Cell(labels, value));
+	// split the values in ranges, each task puts the cells of one range
+	private void createCells(int parallelism, Executor executor) {
+		int size = ds.getValues().size();
+		Map<List<Integer>, Cell> parallelCells = new ConcurrentHashMap<>(size * 4 / 3 + 1, 0.75f, parallelism);
+		int chunk = (size + parallelism - 1) / parallelism;
+		List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		for (int from = 0; from < size; from += chunk) {
+			int start = from;
+			int end = Math.min(size, from + chunk);
+			tasks.add(CompletableFuture.runAsync(() -> {
+				int[] coords = coordsOf(start, new int[sizes.length]);
+				for (int index = start; index < end; index++) {
+					Integer[] ntuple = new Integer[coords.length];
+					for (int i = 0; i < coords.length; i++) {
+						ntuple[i] = coords[i];
+					}
+					parallelCells.put(Collections.unmodifiableList(Arrays.asList(ntuple)), createCell(index));
+					for (int i = coords.length - 1; i >= 0; i--) {
+						if (++coords[i] < sizes[i]) {
+							break;
+						}
+						coords[i] = 0;
+					}
+				}
+			}, executor));
 		}
+		CompletableFuture.allOf(tasks.toArray(new CompletableFuture[tasks.size()])).join();
+		cells = parallelCells;
 	}
 
 	/**
@@ -623,8 +2045,15 @@ public class SSBDataset {
 					"Arguments for table: dimensions indexes for rows and columns must be different");
 		}
 
-		// filters
+		verifyFilters(rowDimIndex, colDimIndex, filters);
+	}
+
+	private void verifyFilters(int rowDimIndex, int colDimIndex, Map<Integer, Integer> filters)
+			throws SSBDatasetException {
 		for (Integer filterIndex : filters.keySet()) {
+			if (filterIndex < 0 || filterIndex >= sizes.length) {
+				throw new SSBDatasetException("Arguments for table: wrong filter argument, no such dimension");
+			}
 			if (filterIndex == rowDimIndex || filterIndex == colDimIndex) {
 				throw new SSBDatasetException(
 						"Arguments for table: wrong filter argument, cannot be same as dimension for rows or columns");
@@ -637,7 +2066,6 @@ public class SSBDataset {
 				throw new SSBDatasetException("Arguments for table: wrong filter argument, no such category");
 			}
 		}
-
 	}
 
 }
@@ -0,0 +1,252 @@
+package ssb;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Reads datasets with the options of a
+ *         {@link ssb.SSBDataset.Builder Builder}, fixed when the reader is
+ *         created.
+ *
+ *         A reader is immutable and thread-safe: build it once and share it.
+ *         The parser, the http loader and its cache are set up once instead
+ *         of on each load, and a dataset keeps no reference to them once it
+ *         is read.
+ *
+ *         <pre>
+ * SSBDatasetReader reader = SSBDataset.builder().lazyCells(true).valueStorage(ValueStorage.DIRECT).reader();
+ * SSBDataset ds = reader.read(url);
+ * SSBDataset other = reader.read(inputStream);
+ *         </pre>
+ */
+public final class SSBDatasetReader {
+
+	/** The reader with the default options, as used by the constructors. */
+	static final SSBDatasetReader DEFAULT = new SSBDatasetReader(false, 1, null, null, DatasetParser.DEFAULT,
+			UrlLoader.DEFAULT);
+
+	private final boolean lazyCells;
+	private final int parallelism;
+	private final Executor executor;
+	private final LoadListener listener;
+	private final DatasetParser parser;
+	private final UrlLoader loader;
+
+	/**
+	 * Instantiates a new SSB dataset reader.
+	 *
+	 * @param lazyCells
+	 *            true to build the cells on demand
+	 * @param parallelism
+	 *            the number of tasks building the cells
+	 * @param executor
+	 *            the executor running the tasks, null for the common fork/join
+	 *            pool
+	 * @param listener
+	 *            the listener of the load and table phases, null for none
+	 * @param parser
+	 *            the parser of the json
+	 * @param loader
+	 *            the loader of urls
+	 */
+	SSBDatasetReader(boolean lazyCells, int parallelism, Executor executor, LoadListener listener,
+			DatasetParser parser, UrlLoader loader) {
+		this.lazyCells = lazyCells;
+		this.parallelism = parallelism;
+		this.executor = executor;
+		this.listener = listener;
+		this.parser = parser;
+		this.loader = loader;
+	}
+
+	/**
+	 * Reads a dataset from a json string.
+	 *
+	 * @param datasetString
+	 *            the dataset string
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the json cannot be read or holds no dataset
+	 */
+	public SSBDataset read(String datasetString) throws SSBDatasetException {
+		return create(parse(datasetString));
+	}
+
+	/**
+	 * Reads a dataset from json bytes, in UTF-8 or any encoding detected by
+	 * Jackson.
+	 *
+	 * @param datasetBytes
+	 *            the json bytes
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the json cannot be read or holds no dataset
+	 */
+	public SSBDataset read(byte[] datasetBytes) throws SSBDatasetException {
+		try {
+			return create(parser.parse(datasetBytes, listener));
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset reader: Could not read dataset from bytes", e);
+		}
+	}
+
+	/**
+	 * Reads a dataset from a stream, as bytes arrive. The stream is closed
+	 * once read.
+	 *
+	 * @param in
+	 *            the stream of json bytes
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the json cannot be read or holds no dataset
+	 */
+	public SSBDataset read(InputStream in) throws SSBDatasetException {
+		try {
+			return create(parser.parse(in, null, listener));
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset reader: Could not read dataset from stream", e);
+		}
+	}
+
+	/**
+	 * Reads a dataset from a stream of chars, as they arrive. The reader is
+	 * closed once read.
+	 *
+	 * @param reader
+	 *            the json chars
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the json cannot be read or holds no dataset
+	 */
+	public SSBDataset read(Reader reader) throws SSBDatasetException {
+		try {
+			return create(parser.parse(reader, listener));
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset reader: Could not read dataset from reader", e);
+		}
+	}
+
+	/**
+	 * Reads a dataset from an url, with the timeouts, cache and size limit of
+	 * the builder.
+	 *
+	 * @param datasetUrl
+	 *            the dataset url
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the url cannot be read or holds no dataset
+	 */
+	public SSBDataset read(URL datasetUrl) throws SSBDatasetException {
+		return create(load(datasetUrl));
+	}
+
+	/**
+	 * Opens a snapshot written by {@link ssb.SSBDataset#writeSnapshot(Path)
+	 * writeSnapshot}, with the values memory-mapped.
+	 *
+	 * @param file
+	 *            the snapshot file
+	 * @return the dataset
+	 * @throws SSBDatasetException
+	 *             if the file is not a snapshot or cannot be read
+	 */
+	public SSBDataset openSnapshot(Path file) throws SSBDatasetException {
+		Probe parsing = Probe.start(listener, LoadPhase.PARSE, file);
+		Dataset read;
+		try {
+			read = Snapshot.read(file);
+		} catch (SSBDatasetException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset snapshot: Could not read snapshot from: " + file, e);
+		}
+		parsing.stop(-1, read.getValues().size());
+		return create(read);
+	}
+
+	/**
+	 * Loads a dataset from an uri without blocking the calling thread.
+	 *
+	 * The download and the parsing run on the given executor; the json is
+	 * parsed as bytes arrive. If loading fails, the future completes
+	 * exceptionally with an {@link ssb.SSBDatasetException
+	 * SSBDatasetException}.
+	 *
+	 * @param datasetUri
+	 *            the dataset uri
+	 * @param loadExecutor
+	 *            the executor running the download and the parsing
+	 * @return the future dataset
+	 */
+	public CompletableFuture<SSBDataset> loadAsync(URI datasetUri, Executor loadExecutor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return read(toUrl(datasetUri));
+			} catch (SSBDatasetException e) {
+				throw new CompletionException(e);
+			}
+		}, loadExecutor);
+	}
+
+	/**
+	 * Parses a dataset from a json string, without building it.
+	 *
+	 * @param datasetString
+	 *            the dataset string
+	 * @return the parsed dataset
+	 * @throws SSBDatasetException
+	 *             if the json cannot be read or holds no dataset
+	 */
+	Dataset parse(String datasetString) throws SSBDatasetException {
+		try {
+			return parser.parse(datasetString, listener);
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset constructor: Could not retrieve dataset from: " + datasetString,
+					e);
+		}
+	}
+
+	/**
+	 * Loads a dataset from an url, without building it.
+	 *
+	 * @param datasetUrl
+	 *            the dataset url
+	 * @return the parsed dataset
+	 * @throws SSBDatasetException
+	 *             if the url cannot be read or holds no dataset
+	 */
+	Dataset load(URL datasetUrl) throws SSBDatasetException {
+		try {
+			return loader.load(datasetUrl, listener);
+		} catch (Exception e) {
+			throw new SSBDatasetException("SSBDataset constructor: Could not retrieve dataset from: " + datasetUrl, e);
+		}
+	}
+
+	private SSBDataset create(Dataset ds) {
+		return new SSBDataset(ds, lazyCells, parallelism, executor, listener);
+	}
+
+	private static URL toUrl(URI datasetUri) throws SSBDatasetException {
+		try {
+			return datasetUri.toURL();
+		} catch (MalformedURLException | IllegalArgumentException e) {
+			throw new SSBDatasetException("SSBDataset constructor: Could not retrieve dataset from: " + datasetUri, e);
+		}
+	}
+
+}
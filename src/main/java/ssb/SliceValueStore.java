@@ -0,0 +1,168 @@
+package ssb;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A view over the values of another store, restricted to some categories of
+ * each dimension.
+ *
+ * Nothing is copied: the position of a value in the view is turned into its
+ * coordinates, and each coordinate into an offset in the parent store. A
+ * slice of a slice reads straight from the original store.
+ */
+final class SliceValueStore extends ValueStore {
+
+	private final ValueStore parent;
+	private final int[] parentStrides;
+
+	/** The category of the parent for each category of the view. */
+	private final int[][] categories;
+
+	/** The category of the view for each category of the parent, or -1. */
+	private final int[][] positions;
+
+	/** The offset in the parent store of each category of the view. */
+	private final int[][] offsets;
+
+	private final int[] strides;
+	private final int size;
+
+	/**
+	 * Instantiates a new slice value store.
+	 *
+	 * @param parent
+	 *            the parent store
+	 * @param parentSizes
+	 *            the dimensions sizes of the parent
+	 * @param parentStrides
+	 *            the dimensions strides of the parent
+	 * @param categories
+	 *            the categories of the parent kept in each dimension, in the
+	 *            order of the view, without duplicates
+	 */
+	SliceValueStore(ValueStore parent, int[] parentSizes, int[] parentStrides, int[][] categories) {
+		if (parent instanceof SliceValueStore) {
+			// read from the original store
+			SliceValueStore slice = (SliceValueStore) parent;
+			int[][] rootCategories = new int[categories.length][];
+			for (int i = 0; i < categories.length; i++) {
+				rootCategories[i] = new int[categories[i].length];
+				for (int j = 0; j < categories[i].length; j++) {
+					rootCategories[i][j] = slice.categories[i][categories[i][j]];
+				}
+			}
+			parent = slice.parent;
+			parentSizes = new int[categories.length];
+			for (int i = 0; i < categories.length; i++) {
+				parentSizes[i] = slice.positions[i].length;
+			}
+			parentStrides = slice.parentStrides;
+			categories = rootCategories;
+		}
+
+		int nDims = categories.length;
+		this.parent = parent;
+		this.parentStrides = parentStrides;
+		this.categories = categories;
+		this.positions = new int[nDims][];
+		this.offsets = new int[nDims][];
+		this.strides = new int[nDims];
+		int stride = 1;
+		for (int i = nDims - 1; i >= 0; i--) {
+			positions[i] = new int[parentSizes[i]];
+			Arrays.fill(positions[i], -1);
+			offsets[i] = new int[categories[i].length];
+			for (int j = 0; j < categories[i].length; j++) {
+				positions[i][categories[i][j]] = j;
+				offsets[i][j] = categories[i][j] * parentStrides[i];
+			}
+			strides[i] = stride;
+			stride *= categories[i].length;
+		}
+		this.size = stride;
+	}
+
+	@Override
+	int size() {
+		return size;
+	}
+
+	@Override
+	double get(int index) {
+		return parent.get(parentIndex(index));
+	}
+
+	@Override
+	boolean isMissing(int index) {
+		return parent.isMissing(parentIndex(index));
+	}
+
+	@Override
+	boolean isDecimal(int index) {
+		return parent.isDecimal(parentIndex(index));
+	}
+
+	@Override
+	Object status(int index) {
+		return parent.status(parentIndex(index));
+	}
+
+	// statuses are sparse: map each status of the parent into the view
+	@Override
+	void forEachStatus(ObjIntConsumer<Object> action) {
+		Map<Integer, Object> statuses = new TreeMap<>();
+		parent.forEachStatus((status, parentIndex) -> {
+			int index = 0;
+			for (int i = 0; i < parentStrides.length; i++) {
+				int catIndex = parentIndex / parentStrides[i];
+				parentIndex -= catIndex * parentStrides[i];
+				int position = positions[i][catIndex];
+				if (position < 0) {
+					return;
+				}
+				index += position * strides[i];
+			}
+			statuses.put(index, status);
+		});
+		statuses.forEach((index, status) -> action.accept(status, index));
+	}
+
+	// the view keeps its parent reachable
+	@Override
+	long estimatedBytes() {
+		long bytes = parent.estimatedBytes() + 64;
+		for (int i = 0; i < categories.length; i++) {
+			bytes += 4L * (categories[i].length + positions[i].length + offsets[i].length);
+		}
+		return bytes;
+	}
+
+	@Override
+	ValueStorage storage() {
+		return parent.storage();
+	}
+
+	/**
+	 * Gets the position in the parent store of a value of the view.
+	 *
+	 * @param index
+	 *            the position of the value in the view
+	 * @return the position of the value in the parent store
+	 */
+	int parentIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index);
+		}
+		int parentIndex = 0;
+		for (int i = 0; i < strides.length; i++) {
+			int catIndex = index / strides[i];
+			index -= catIndex * strides[i];
+			parentIndex += offsets[i][catIndex];
+		}
+		return parentIndex;
+	}
+
+}
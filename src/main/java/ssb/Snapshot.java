@@ -0,0 +1,409 @@
+package ssb;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Reads and writes datasets in a compact binary form.
+ *
+ * <pre>
+ * int    magic, version, header length
+ * header dictionary of strings, metadata, dimensions, statuses
+ *        (padding to a multiple of 8 bytes)
+ * double values                   the value block
+ * long   missing values bitmap    (size + 63) / 64 words
+ * long   decimal values bitmap    (size + 63) / 64 words
+ * </pre>
+ *
+ * All strings of the header (dimension ids, roles, category codes and
+ * labels, statuses) are written once in the dictionary and referred to by
+ * their position, -1 for null. The rest of the metadata of a dimension, such
+ * as its units, is kept as json. When a snapshot is opened, the value block
+ * and the bitmaps are mapped and read in place.
+ */
+final class Snapshot {
+
+	private static final int MAGIC = 0x53534253;
+	private static final int VERSION = 1;
+
+	/** The size of the magic, version and header length. */
+	private static final int PREAMBLE = 12;
+
+	/** The forms of the 'index' object of a category. */
+	private static final byte NO_INDEX = 0;
+	private static final byte INDEX_MAP = 1;
+	private static final byte INDEX_LIST = 2;
+
+	private static final JsonFactory FACTORY = new JsonFactory();
+
+	private Snapshot() {
+	}
+
+	/**
+	 * Writes a dataset to a file. The file is replaced atomically once
+	 * complete.
+	 *
+	 * @param ds
+	 *            the dataset
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	static void write(SSBDataset ds, Path file) throws IOException {
+		byte[] header = header(ds);
+		ValueStore values = ds.getDs().getValues();
+		int size = values.size();
+
+		Path dir = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp, StandardOpenOption.WRITE), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(header.length);
+				out.write(header);
+				for (long i = PREAMBLE + header.length; i % Double.BYTES != 0; i++) {
+					out.writeByte(0);
+				}
+				for (int i = 0; i < size; i++) {
+					out.writeDouble(values.get(i));
+				}
+				writeBitmap(out, size, values::isMissing);
+				writeBitmap(out, size, values::isDecimal);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Opens a dataset written by {@link #write(SSBDataset, Path)}, mapping its
+	 * values.
+	 *
+	 * @param file
+	 *            the file
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the file cannot be read
+	 * @throws SSBDatasetException
+	 *             if the file is not a snapshot or has an unknown version
+	 */
+	static Dataset read(Path file) throws IOException, SSBDatasetException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE);
+			while (preamble.hasRemaining() && channel.read(preamble) >= 0) {
+				// until the preamble is read
+			}
+			preamble.flip();
+			if (preamble.remaining() < PREAMBLE || preamble.getInt() != MAGIC) {
+				throw new SSBDatasetException("SSBDataset snapshot: not a snapshot: " + file);
+			}
+			int version = preamble.getInt();
+			if (version != VERSION) {
+				throw new SSBDatasetException("SSBDataset snapshot: unsupported version " + version + ": " + file);
+			}
+			int headerLength = preamble.getInt();
+			ByteBuffer header = ByteBuffer.allocate(headerLength);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// until the header is read
+			}
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(header.array()));
+
+			Dataset ds = new Dataset();
+			String[] strings = new String[in.readInt()];
+			for (int i = 0; i < strings.length; i++) {
+				strings[i] = in.readUTF();
+			}
+			ds.setLabel(string(strings, in.readInt()));
+			ds.setSource(string(strings, in.readInt()));
+			long updated = in.readLong();
+			ds.setUpdated(updated != Long.MIN_VALUE ? new Date(updated) : null);
+			ds.setDimension(readDimensions(in, strings));
+
+			int size = in.readInt();
+			int[] statusIndexes = new int[in.readInt()];
+			Object[] statusValues = new Object[statusIndexes.length];
+			for (int i = 0; i < statusIndexes.length; i++) {
+				statusIndexes[i] = in.readInt();
+				statusValues[i] = string(strings, in.readInt());
+			}
+
+			long offset = align(PREAMBLE + headerLength);
+			DoubleBuffer[] chunks = new DoubleBuffer[BufferValueStore.chunkCount(size)];
+			for (int i = 0; i < chunks.length; i++) {
+				int chunkSize = Math.min(BufferValueStore.CHUNK_SIZE, size - i * BufferValueStore.CHUNK_SIZE);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) chunkSize * Double.BYTES)
+						.asDoubleBuffer();
+				offset += (long) chunkSize * Double.BYTES;
+			}
+			long bitmapBytes = (long) BufferValueStore.wordCount(size) * Long.BYTES;
+			LongBuffer missing = channel.map(FileChannel.MapMode.READ_ONLY, offset, bitmapBytes).asLongBuffer();
+			LongBuffer decimals = channel.map(FileChannel.MapMode.READ_ONLY, offset + bitmapBytes, bitmapBytes)
+					.asLongBuffer();
+			ds.setValues(new BufferValueStore(chunks, size, missing, decimals, statusIndexes, statusValues, true));
+			return ds;
+		}
+	}
+
+	/*
+	 **************************************************************************
+	 * header
+	 **************************************************************************
+	 */
+
+	private static byte[] header(SSBDataset ds) throws IOException {
+		Dataset dataset = ds.getDs();
+		ValueStore values = dataset.getValues();
+		Dictionary strings = new Dictionary();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(body);
+
+		out.writeInt(strings.ref(dataset.getLabel()));
+		out.writeInt(strings.ref(dataset.getSource()));
+		out.writeLong(dataset.getUpdated() != null ? dataset.getUpdated().getTime() : Long.MIN_VALUE);
+
+		List<String> dimIds = ds.getDimensionsIds();
+		Map<String, Object> roles = ds.getDimensionsRoles();
+		out.writeBoolean(roles != null);
+		out.writeInt(dimIds.size());
+		for (int dimIndex = 0; dimIndex < dimIds.size(); dimIndex++) {
+			writeDimension(out, strings, ds, dimIndex);
+		}
+
+		out.writeInt(values.size());
+		List<int[]> statuses = new ArrayList<>();
+		values.forEachStatus((status, index) -> statuses
+				.add(new int[] { index, strings.ref(status != null ? String.valueOf(status) : null) }));
+		out.writeInt(statuses.size());
+		for (int[] status : statuses) {
+			out.writeInt(status[0]);
+			out.writeInt(status[1]);
+		}
+		out.flush();
+
+		// the dictionary first, it is needed to read the rest
+		ByteArrayOutputStream header = new ByteArrayOutputStream(body.size() + 64 * strings.size());
+		DataOutputStream headerOut = new DataOutputStream(header);
+		headerOut.writeInt(strings.size());
+		for (String string : strings.strings) {
+			headerOut.writeUTF(string);
+		}
+		body.writeTo(headerOut);
+		headerOut.flush();
+		return header.toByteArray();
+	}
+
+	// id, size, role, category codes, category labels, then the rest as json
+	private static void writeDimension(DataOutputStream out, Dictionary strings, SSBDataset ds, int dimIndex)
+			throws IOException {
+		String dimId = ds.getDimensionId(dimIndex);
+		Map<String, Object> dimension = new LinkedHashMap<>(ds.getDimension(dimIndex));
+		out.writeInt(strings.ref(dimId));
+		out.writeInt(ds.getDimensionsSizes().get(dimIndex));
+		out.writeInt(strings.ref(ds.getDimensionsRoles() != null ? ds.getDimensionRole(dimIndex) : null));
+
+		Map<String, Object> category = dimension.get("category") instanceof Map
+				? new LinkedHashMap<>((Map<String, Object>) dimension.get("category")) : null;
+		Object index = category != null ? category.get("index") : null;
+		if (index instanceof Map) {
+			category.remove("index");
+			Map<String, Object> codes = (Map<String, Object>) index;
+			String[] sorted = new String[codes.size()];
+			for (Map.Entry<String, Object> code : codes.entrySet()) {
+				sorted[((Number) code.getValue()).intValue()] = code.getKey();
+			}
+			out.writeByte(INDEX_MAP);
+			writeRefs(out, strings, Arrays.asList(sorted));
+		} else if (index instanceof List) {
+			category.remove("index");
+			out.writeByte(INDEX_LIST);
+			writeRefs(out, strings, (List<Object>) index);
+		} else {
+			out.writeByte(NO_INDEX);
+		}
+
+		Object catLabels = category != null ? category.get("label") : null;
+		out.writeBoolean(catLabels instanceof Map);
+		if (catLabels instanceof Map) {
+			category.remove("label");
+			Map<String, Object> byCode = (Map<String, Object>) catLabels;
+			out.writeInt(byCode.size());
+			for (Map.Entry<String, Object> label : byCode.entrySet()) {
+				out.writeInt(strings.ref(label.getKey()));
+				out.writeInt(strings.ref(label.getValue() != null ? String.valueOf(label.getValue()) : null));
+			}
+		}
+
+		if (category != null) {
+			dimension.put("category", category);
+		}
+		byte[] json = toJson(dimension).getBytes(StandardCharsets.UTF_8);
+		out.writeInt(json.length);
+		out.write(json);
+	}
+
+	private static Map<String, Object> readDimensions(DataInputStream in, String[] strings) throws IOException {
+		boolean hasRoles = in.readBoolean();
+		int nDims = in.readInt();
+		Map<String, Object> dimensions = new LinkedHashMap<>();
+		List<String> ids = new ArrayList<>(nDims);
+		List<Integer> sizes = new ArrayList<>(nDims);
+		Map<String, Object> roles = new LinkedHashMap<>();
+		for (int dimIndex = 0; dimIndex < nDims; dimIndex++) {
+			String dimId = string(strings, in.readInt());
+			int size = in.readInt();
+			String role = string(strings, in.readInt());
+			ids.add(dimId);
+			sizes.add(size);
+			if (role != null) {
+				((List<String>) roles.computeIfAbsent(role, r -> new ArrayList<String>())).add(dimId);
+			}
+
+			Map<String, Object> category = new LinkedHashMap<>();
+			byte indexForm = in.readByte();
+			if (indexForm != NO_INDEX) {
+				List<Object> codes = readRefs(in, strings);
+				if (indexForm == INDEX_MAP) {
+					Map<String, Object> index = new LinkedHashMap<>();
+					for (int i = 0; i < codes.size(); i++) {
+						index.put((String) codes.get(i), i);
+					}
+					category.put("index", index);
+				} else {
+					category.put("index", codes);
+				}
+			}
+			if (in.readBoolean()) {
+				Map<String, Object> byCode = new LinkedHashMap<>();
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					byCode.put(string(strings, in.readInt()), string(strings, in.readInt()));
+				}
+				category.put("label", byCode);
+			}
+
+			byte[] json = new byte[in.readInt()];
+			in.readFully(json);
+			Map<String, Object> dimension = (Map<String, Object>) DatasetParser
+					.parseJson(new String(json, StandardCharsets.UTF_8));
+			if (dimension.get("category") instanceof Map) {
+				category.putAll((Map<String, Object>) dimension.get("category"));
+			}
+			if (!category.isEmpty()) {
+				dimension.put("category", category);
+			}
+			dimensions.put(dimId, dimension);
+		}
+		dimensions.put("id", ids);
+		dimensions.put("size", sizes);
+		if (hasRoles) {
+			dimensions.put("role", roles);
+		}
+		return dimensions;
+	}
+
+	/*
+	 **************************************************************************
+	 * private methods
+	 **************************************************************************
+	 */
+
+	private static void writeBitmap(DataOutputStream out, int size, IntPredicate bit) throws IOException {
+		int words = BufferValueStore.wordCount(size);
+		for (int w = 0; w < words; w++) {
+			long word = 0;
+			int end = Math.min(size, (w + 1) * 64);
+			for (int index = w * 64; index < end; index++) {
+				if (bit.test(index)) {
+					word |= 1L << index;
+				}
+			}
+			out.writeLong(word);
+		}
+	}
+
+	private static void writeRefs(DataOutputStream out, Dictionary strings, List<?> list) throws IOException {
+		out.writeInt(list.size());
+		for (Object string : list) {
+			out.writeInt(strings.ref(string != null ? String.valueOf(string) : null));
+		}
+	}
+
+	private static List<Object> readRefs(DataInputStream in, String[] strings) throws IOException {
+		int count = in.readInt();
+		List<Object> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(string(strings, in.readInt()));
+		}
+		return list;
+	}
+
+	private static String string(String[] strings, int ref) {
+		return ref < 0 ? null : strings[ref];
+	}
+
+	private static long align(long offset) {
+		return (offset + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+	}
+
+	private static String toJson(Object value) throws IOException {
+		StringWriter json = new StringWriter();
+		try (JsonGenerator generator = FACTORY.createGenerator(json)) {
+			JsonStatWriter.writeAny(generator, value);
+		}
+		return json.toString();
+	}
+
+	/** The strings of a header, each one written once. */
+	private static final class Dictionary {
+
+		private final List<String> strings = new ArrayList<>();
+		private final Map<String, Integer> refs = new HashMap<>();
+
+		int ref(String string) {
+			if (string == null) {
+				return -1;
+			}
+			Integer ref = refs.get(string);
+			if (ref == null) {
+				ref = strings.size();
+				strings.add(string);
+				refs.put(string, ref);
+			}
+			return ref;
+		}
+
+		int size() {
+			return strings.size();
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+package ssb;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Holds a table of values, one dimension for the rows and one
+ *         dimension for the columns. Values are kept as primitives, row by
+ *         row, and formatted only on demand.
+ *
+ *         <pre>
+ * TableResult table = ds.tableResult(1, 3, filters);
+ * double value = table.value(0, 1);
+ * List&lt;List&lt;Object&gt;&gt; display = table.toList(ValueFormatter.numberFormat(Locale.FRANCE));
+ *         </pre>
+ */
+public class TableResult {
+
+	private final List<Object> rowLabels;
+	private final List<Object> columnLabels;
+	private final double[] values;
+	private final BitSet missing;
+	private final Object[] statuses;
+
+	/**
+	 * Instantiates a new table result.
+	 *
+	 * @param rowLabels
+	 *            the labels of the rows
+	 * @param columnLabels
+	 *            the labels of the columns
+	 * @param values
+	 *            the values, row by row, NaN if missing
+	 * @param missing
+	 *            the missing values
+	 * @param statuses
+	 *            the statuses of the missing values, row by row
+	 */
+	TableResult(List<Object> rowLabels, List<Object> columnLabels, double[] values, BitSet missing,
+			Object[] statuses) {
+		this.rowLabels = rowLabels;
+		this.columnLabels = columnLabels;
+		this.values = values;
+		this.missing = missing;
+		this.statuses = statuses;
+	}
+
+	/**
+	 * Gets the number of rows
+	 *
+	 * @return the number of rows
+	 */
+	public int rows() {
+		return rowLabels.size();
+	}
+
+	/**
+	 * Gets the number of columns
+	 *
+	 * @return the number of columns
+	 */
+	public int columns() {
+		return columnLabels.size();
+	}
+
+	/**
+	 * Gets the labels of the rows
+	 *
+	 * @return the labels of the rows
+	 */
+	public List<Object> rowLabels() {
+		return rowLabels;
+	}
+
+	/**
+	 * Gets the labels of the columns
+	 *
+	 * @return the labels of the columns
+	 */
+	public List<Object> columnLabels() {
+		return columnLabels;
+	}
+
+	/**
+	 * Gets a value
+	 *
+	 * @param row
+	 *            the row index
+	 * @param column
+	 *            the column index
+	 * @return the value, NaN if missing
+	 */
+	public double value(int row, int column) {
+		return values[offset(row, column)];
+	}
+
+	/**
+	 * Checks if a value is missing
+	 *
+	 * @param row
+	 *            the row index
+	 * @param column
+	 *            the column index
+	 * @return true if the value is missing
+	 */
+	public boolean isMissing(int row, int column) {
+		return missing.get(offset(row, column));
+	}
+
+	/**
+	 * Gets the status of a missing value
+	 *
+	 * @param row
+	 *            the row index
+	 * @param column
+	 *            the column index
+	 * @return the status, null if none
+	 */
+	public Object status(int row, int column) {
+		return statuses[offset(row, column)];
+	}
+
+	/**
+	 * Gets the values, row by row
+	 *
+	 * @return a copy of the values, NaN for missing values
+	 */
+	public double[] values() {
+		return values.clone();
+	}
+
+	/**
+	 * Gets this table as a List for display purposes, in the same layout as
+	 * {@link ssb.SSBDataset#table(int, int, java.util.Map) table}: the 1st row
+	 * is the table header with columns' names, 1st cell being empty, and the
+	 * 1st cell of each row is the row name. A missing value is replaced by its
+	 * status.
+	 *
+	 * @param formatter
+	 *            the formatter for the values
+	 * @return the table as a List
+	 */
+	public List<List<Object>> toList(ValueFormatter formatter) {
+		List<List<Object>> table = new ArrayList<>(rows() + 1);
+
+		List<Object> tableHeader = new ArrayList<>(columns() + 1);
+		tableHeader.add("");
+		tableHeader.addAll(columnLabels);
+		table.add(tableHeader);
+
+		for (int i = 0; i < rows(); i++) {
+			List<Object> tableRow = new ArrayList<>(columns() + 1);
+			tableRow.add(rowLabels.get(i));
+			for (int j = 0; j < columns(); j++) {
+				int offset = i * columns() + j;
+				tableRow.add(missing.get(offset) ? statuses[offset] : formatter.format(values[offset]));
+			}
+			table.add(tableRow);
+		}
+		return table;
+	}
+
+	private int offset(int row, int column) {
+		if (row < 0 || row >= rows() || column < 0 || column >= columns()) {
+			throw new IndexOutOfBoundsException("No value at row " + row + ", column " + column);
+		}
+		return row * columns() + column;
+	}
+
+}
@@ -0,0 +1,270 @@
+package ssb;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Loads the json of a dataset from an url.
+ *
+ * The response is read by the parser as bytes arrive, so download and parsing
+ * overlap. Http requests accept gzip and deflate encodings; a compressed
+ * response is inflated as a stream on its way to the parser. With a cache
+ * directory, http responses are kept on disk, inflated, and revalidated with
+ * a conditional request on the next load.
+ */
+final class UrlLoader {
+
+	/** The default size of the read buffer. */
+	static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	/** The loader with no timeouts and no cache. */
+	static final UrlLoader DEFAULT = new UrlLoader(0, 0, null, DatasetParser.DEFAULT, DEFAULT_BUFFER_SIZE, 0);
+
+	private final int connectTimeout;
+	private final int readTimeout;
+	private final HttpCache cache;
+	private final DatasetParser parser;
+	private final int bufferSize;
+	private final long maxResponseSize;
+
+	/**
+	 * Instantiates a new url loader.
+	 *
+	 * @param connectTimeout
+	 *            the connect timeout in milliseconds, 0 for none
+	 * @param readTimeout
+	 *            the read timeout in milliseconds, 0 for none
+	 * @param cacheDirectory
+	 *            the directory of the on-disk cache, null for none
+	 * @param parser
+	 *            the parser of the json
+	 * @param bufferSize
+	 *            the size of the read buffer in bytes
+	 * @param maxResponseSize
+	 *            the maximum size of the json in bytes, once inflated, 0 for
+	 *            no limit
+	 */
+	UrlLoader(int connectTimeout, int readTimeout, Path cacheDirectory, DatasetParser parser, int bufferSize,
+			long maxResponseSize) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+		this.cache = cacheDirectory != null ? new HttpCache(cacheDirectory) : null;
+		this.parser = parser;
+		this.bufferSize = bufferSize;
+		this.maxResponseSize = maxResponseSize;
+	}
+
+	/**
+	 * Loads a dataset.
+	 *
+	 * @param datasetUrl
+	 *            the dataset url
+	 * @param listener
+	 *            the listener of the connect and parse phases, null for none
+	 * @return the dataset
+	 * @throws IOException
+	 *             if the url cannot be read
+	 * @throws SSBDatasetException
+	 *             if the json holds no dataset
+	 */
+	Dataset load(URL datasetUrl, LoadListener listener) throws IOException, SSBDatasetException {
+		Probe connecting = Probe.start(listener, LoadPhase.CONNECT, datasetUrl);
+		URLConnection connection = datasetUrl.openConnection();
+		connection.setConnectTimeout(connectTimeout);
+		connection.setReadTimeout(readTimeout);
+		if (!(connection instanceof HttpURLConnection)) {
+			InputStream body = connection.getInputStream();
+			connecting.stop(-1, -1);
+			try {
+				return parser.parse(limit(body, datasetUrl), datasetUrl, listener);
+			} catch (IOException | SSBDatasetException | RuntimeException e) {
+				closeQuietly(body);
+				throw e;
+			}
+		}
+
+		HttpURLConnection http = (HttpURLConnection) connection;
+		http.setRequestProperty("Accept-Encoding", "gzip, deflate");
+		HttpCache.Entry cached = cache != null ? cache.get(datasetUrl) : null;
+		try {
+			if (cached != null) {
+				cached.prepare(http);
+			}
+			int status = http.getResponseCode();
+			connecting.stop(-1, -1);
+			if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+				http.disconnect();
+				InputStream json = cached.json();
+				cached = null;
+				return parser.parse(json, datasetUrl, listener);
+			}
+			if (status >= 400 || status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				http.disconnect();
+				throw new IOException("HTTP " + status + " for " + datasetUrl);
+			}
+		} finally {
+			if (cached != null) {
+				cached.close();
+			}
+		}
+
+		// a body that cannot be read must not keep the connection open
+		InputStream json;
+		try {
+			json = limit(decode(http), datasetUrl);
+		} catch (IOException | RuntimeException e) {
+			http.disconnect();
+			throw e;
+		}
+		try {
+			return parse(http, json, datasetUrl, listener);
+		} catch (IOException | SSBDatasetException | RuntimeException e) {
+			closeQuietly(json);
+			http.disconnect();
+			throw e;
+		}
+	}
+
+	// the body of a response, written to the cache as it is parsed
+	private Dataset parse(HttpURLConnection http, InputStream json, URL datasetUrl, LoadListener listener)
+			throws IOException, SSBDatasetException {
+		if (cache == null) {
+			return parser.parse(json, datasetUrl, listener);
+		}
+		// a cache that cannot be written must not fail the load
+		HttpCache.EntryWriter entry;
+		try {
+			entry = cache.put(datasetUrl, http);
+		} catch (IOException e) {
+			return parser.parse(json, datasetUrl, listener);
+		}
+		Dataset ds;
+		try {
+			ds = parser.parse(entry.tee(json), datasetUrl, listener);
+		} catch (IOException | SSBDatasetException | RuntimeException e) {
+			entry.abort();
+			throw e;
+		}
+		try {
+			entry.commit(ds.getUpdated());
+		} catch (IOException e) {
+			entry.abort();
+		}
+		return ds;
+	}
+
+	// the body of the response, inflated if it is compressed
+	private InputStream decode(HttpURLConnection http) throws IOException {
+		String encoding = http.getContentEncoding();
+		InputStream body = http.getInputStream();
+		if (encoding == null || encoding.trim().isEmpty() || "identity".equalsIgnoreCase(encoding.trim())) {
+			return body;
+		}
+		try {
+			switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+			case "gzip":
+			case "x-gzip":
+				return new GZIPInputStream(body, bufferSize);
+			case "deflate":
+				// zlib wrapped as specified, but some servers send raw deflate
+				BufferedInputStream in = new BufferedInputStream(body, bufferSize);
+				in.mark(2);
+				int cmf = in.read();
+				int flg = in.read();
+				in.reset();
+				boolean zlib = (cmf & 0x0f) == 8 && flg >= 0 && ((cmf << 8) + flg) % 31 == 0;
+				return new InflaterInputStream(in, new Inflater(!zlib), bufferSize);
+			default:
+				throw new IOException("Unsupported Content-Encoding " + encoding + " for " + http.getURL());
+			}
+		} catch (IOException | RuntimeException e) {
+			closeQuietly(body);
+			throw e;
+		}
+	}
+
+	private static void closeQuietly(InputStream in) {
+		try {
+			in.close();
+		} catch (IOException e) {
+			// failing anyway
+		}
+	}
+
+	// buffered, and failing once more than the maximum size is read
+	private InputStream limit(InputStream json, URL datasetUrl) {
+		InputStream buffered = new BufferedInputStream(json, bufferSize);
+		return maxResponseSize > 0 ? new LimitedInputStream(buffered, maxResponseSize, datasetUrl) : buffered;
+	}
+
+	/**
+	 * Fails once more than a maximum number of bytes is read.
+	 */
+	private static final class LimitedInputStream extends FilterInputStream {
+
+		private final long max;
+		private final URL datasetUrl;
+		private long count;
+
+		/**
+		 * Instantiates a new limited input stream.
+		 *
+		 * @param in
+		 *            the stream read
+		 * @param max
+		 *            the maximum number of bytes
+		 * @param datasetUrl
+		 *            the url read, for the error message
+		 */
+		LimitedInputStream(InputStream in, long max, URL datasetUrl) {
+			super(in);
+			this.max = max;
+			this.datasetUrl = datasetUrl;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int n = super.read(buffer, offset, length);
+			if (n > 0) {
+				count(n);
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			if (skipped > 0) {
+				count(skipped);
+			}
+			return skipped;
+		}
+
+		private void count(long n) throws IOException {
+			count += n;
+			if (count > max) {
+				throw new IOException("Response larger than " + max + " bytes for " + datasetUrl);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,52 @@
+package ssb;
+
+import java.util.Locale;
+
+/**
+ * 
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ * 
+ *         <br>
+ *         <br>
+ * 
+ *         Formats the values of a {@link ssb.TableResult TableResult} for
+ *         display. Implementations must be thread-safe so that one formatter
+ *         can be shared and reused.
+ */
+@FunctionalInterface
+public interface ValueFormatter {
+
+	/**
+	 * Formats a value.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the formatted value
+	 */
+	String format(double value);
+
+	/**
+	 * Gets a formatter using the {@link java.text.NumberFormat NumberFormat}
+	 * of the default locale at the time of formatting, as done by
+	 * {@link ssb.SSBDataset#table(int, int, java.util.Map) table}.
+	 *
+	 * @return a thread-safe formatter
+	 */
+	static ValueFormatter numberFormat() {
+		return NumberValueFormatter.DEFAULT;
+	}
+
+	/**
+	 * Gets a formatter using the {@link java.text.NumberFormat NumberFormat}
+	 * of a locale.
+	 *
+	 * @param locale
+	 *            the locale
+	 * @return a thread-safe formatter
+	 */
+	static ValueFormatter numberFormat(Locale locale) {
+		return new NumberValueFormatter(locale);
+	}
+
+}
@@ -0,0 +1,66 @@
+package ssb;
+
+import java.io.IOException;
+
+/**
+ *
+ * @version 1.1.1
+ * @author Laurent-Thuy Soublin
+ *
+ *         <br>
+ *         <br>
+ *
+ *         Where the values of a dataset are stored, see
+ *         {@link ssb.SSBDataset.Builder#valueStorage(ValueStorage)}.
+ *
+ *         Off-heap storage keeps large datasets out of the reach of the
+ *         garbage collector: the values take no heap, so keeping many of them
+ *         resident does not lengthen collections. Combine it with
+ *         {@link ssb.SSBDataset.Builder#lazyCells(boolean) lazy cells}, the
+ *         built cells would be on the heap.
+ */
+public enum ValueStorage {
+
+	/** The values are in an array on the heap, the default. */
+	HEAP {
+		@Override
+		ValueStore.Builder builder(int capacity) {
+			return new ArrayValueStore.Builder(capacity);
+		}
+	},
+
+	/**
+	 * The values are in direct buffers, outside of the heap. Their total size
+	 * is bounded by the -XX:MaxDirectMemorySize option of the JVM.
+	 */
+	DIRECT {
+		@Override
+		ValueStore.Builder builder(int capacity) {
+			return BufferValueStore.Builder.direct(capacity);
+		}
+	},
+
+	/**
+	 * The values are in a temp file mapped in memory: the system pages them
+	 * in and out as needed, so datasets can exceed the available memory. The
+	 * file is deleted once mapped.
+	 */
+	MAPPED {
+		@Override
+		ValueStore.Builder builder(int capacity) throws IOException {
+			return BufferValueStore.Builder.mapped(capacity);
+		}
+	};
+
+	/**
+	 * Creates a builder for a store of this kind.
+	 *
+	 * @param capacity
+	 *            the expected number of values, 0 if unknown
+	 * @return the builder
+	 * @throws IOException
+	 *             if the storage cannot be created
+	 */
+	abstract ValueStore.Builder builder(int capacity) throws IOException;
+
+}
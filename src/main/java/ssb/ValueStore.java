@@ -0,0 +1,184 @@
+package ssb;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Holds the values of a dataset in primitive form.
+ *
+ * Each value is addressed by its position, in the order of the json 'value'
+ * array. Besides the value itself, a store tells whether it is missing (null
+ * in the json) and whether it was written as a decimal, so that the original
+ * Integer / Long / Double can be given back when boxing.
+ */
+abstract class ValueStore {
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the number of values
+	 */
+	abstract int size();
+
+	/**
+	 * Gets a value, NaN if missing.
+	 *
+	 * @param index
+	 *            the index of the value
+	 * @return the value
+	 */
+	abstract double get(int index);
+
+	/**
+	 * Checks if a value is missing.
+	 *
+	 * @param index
+	 *            the index of the value
+	 * @return true if the value is missing
+	 */
+	abstract boolean isMissing(int index);
+
+	/**
+	 * Checks if a value was written as a decimal.
+	 *
+	 * @param index
+	 *            the index of the value
+	 * @return true if the value is a decimal
+	 */
+	abstract boolean isDecimal(int index);
+
+	/**
+	 * Gets the status of a value.
+	 *
+	 * @param index
+	 *            the index of the value
+	 * @return the status, null if none
+	 */
+	abstract Object status(int index);
+
+	/**
+	 * Passes each status and the index of its value to an action, by
+	 * increasing index.
+	 *
+	 * @param action
+	 *            the action
+	 */
+	abstract void forEachStatus(ObjIntConsumer<Object> action);
+
+	/**
+	 * Gets an estimate of the memory retained by this store.
+	 *
+	 * @return the estimated number of bytes
+	 */
+	abstract long estimatedBytes();
+
+	/**
+	 * Gets the kind of storage of the values, for stores derived from this
+	 * one.
+	 *
+	 * @return the storage
+	 */
+	abstract ValueStorage storage();
+
+	/**
+	 * Gets a value as an Integer, a Long or a Double, like it was written in
+	 * the json.
+	 *
+	 * @param index
+	 *            the index of the value
+	 * @return the value, null if missing
+	 */
+	Object box(int index) {
+		if (isMissing(index)) {
+			return null;
+		}
+		double value = get(index);
+		if (isDecimal(index)) {
+			return value;
+		}
+		long longValue = (long) value;
+		if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+			return (int) longValue;
+		}
+		return longValue;
+	}
+
+	/**
+	 * Gets the values as a List of boxed values.
+	 *
+	 * @return a read-only view of the values
+	 */
+	List<Object> asList() {
+		return new AbstractList<Object>() {
+
+			@Override
+			public Object get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException("Index: " + index);
+				}
+				return box(index);
+			}
+
+			@Override
+			public int size() {
+				return ValueStore.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Gets the statuses as a Map, keyed by the index of the value as a String
+	 * like in the json.
+	 *
+	 * @return the statuses
+	 */
+	Map<String, Object> statusMap() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		forEachStatus((status, index) -> map.put(String.valueOf(index), status));
+		return map;
+	}
+
+	/**
+	 * Appends values one at a time while the json is read.
+	 */
+	abstract static class Builder {
+
+		/**
+		 * Appends a value.
+		 *
+		 * @param value
+		 *            the value
+		 * @param decimal
+		 *            true if the value was written as a decimal
+		 */
+		abstract void add(double value, boolean decimal);
+
+		/**
+		 * Appends a missing value.
+		 */
+		abstract void addMissing();
+
+		/**
+		 * Builds the store.
+		 *
+		 * @param status
+		 *            the statuses by index of the value
+		 * @return the store
+		 * @throws IOException
+		 *             if the storage of the values fails
+		 */
+		abstract ValueStore build(SortedMap<Integer, Object> status) throws IOException;
+
+		/**
+		 * Releases the storage of a store that will not be built.
+		 */
+		void discard() {
+		}
+	}
+
+}
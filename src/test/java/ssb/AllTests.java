@@ -5,8 +5,12 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ Test_Cell.class, Test_Dataset.class, Test_SSBDataset.class, Test_SSBDataset_Constructor.class,
-		Test_Table.class })
+@SuiteClasses({ Test_Aggregate.class, Test_Builder.class, Test_Cell.class, Test_CellMap.class, Test_Compression.class,
+		Test_CoordinateResolver.class, Test_CsvExport.class, Test_Dataset.class, Test_DatasetCache.class,
+		Test_Dimension.class, Test_HttpCache.class, Test_JsonStatGenerator.class, Test_JsonStatWriter.class,
+		Test_LoadAsync.class, Test_LoadListener.class, Test_MergeAppend.class, Test_SSBDataset.class,
+		Test_SSBDatasetReader.class, Test_SSBDataset_Constructor.class, Test_Slice.class, Test_Snapshot.class,
+		Test_Table.class, Test_ValueStorage.class })
 public class AllTests {
 
 }
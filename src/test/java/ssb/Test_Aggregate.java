@@ -0,0 +1,96 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_Aggregate {
+
+	private static SSBDataset ds1052;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds1052 = new SSBDataset(ds1052Test);
+	}
+
+	@Test
+	public void testMetadata() throws SSBDatasetException {
+		SSBDataset aggregated = ds1052.aggregate(Collections.singleton(2), Aggregator.SUM);
+		assertEquals(Arrays.asList(1, 1, 2), aggregated.getDimensionsSizes());
+		assertEquals(Arrays.asList("Kjonn", "Alder", "ContentsCode"), aggregated.getDimensionsIds());
+		assertEquals(Arrays.asList("sex", "age", "contents"), aggregated.getDimensionsLabels());
+		assertEquals(null, aggregated.getDimensionRole("Tid"));
+		assertEquals("metric", aggregated.getDimensionRole(2));
+		assertEquals(ds1052.label(), aggregated.label());
+	}
+
+	@Test
+	public void testAggregators() throws SSBDatasetException {
+		// time collapsed, missing values for 2016M01 are skipped
+		SSBDataset sum = ds1052.aggregate(Collections.singleton(2), Aggregator.SUM);
+		assertEquals(1454, sum.valueAt(0, 0, 0), 1e-9);
+		assertEquals(52.4, sum.valueAt(0, 0, 1), 1e-9);
+		assertEquals(1454, sum.cells().get(Arrays.asList(0, 0, 0)).getValue());
+
+		SSBDataset mean = ds1052.aggregate(Collections.singleton(2), Aggregator.MEAN);
+		assertEquals(1454 / 12.0, mean.valueAt(0, 0, 0), 1e-9);
+
+		SSBDataset min = ds1052.aggregate(Collections.singleton(2), Aggregator.MIN);
+		assertEquals(4, min.valueAt(0, 0, 1), 0);
+		assertEquals(110, min.cells().get(Arrays.asList(0, 0, 0)).getValue());
+
+		SSBDataset max = ds1052.aggregate(Collections.singleton(2), Aggregator.MAX);
+		assertEquals(129, max.valueAt(0, 0, 0), 0);
+
+		SSBDataset count = ds1052.aggregate(Collections.singleton(2), Aggregator.COUNT);
+		assertEquals(12, count.cells().get(Arrays.asList(0, 0, 1)).getValue());
+	}
+
+	@Test
+	public void testAllMissing() throws SSBDatasetException {
+		SSBDataset sum = ds1052.aggregate(Collections.singleton(3), Aggregator.SUM);
+		assertTrue(sum.isMissing(0, 0, 12));
+		assertEquals(0, ds1052.aggregate(Collections.singleton(3), Aggregator.COUNT).valueAt(0, 0, 12), 0);
+	}
+
+	@Test
+	public void testCollapseAll() throws SSBDatasetException {
+		SSBDataset count = ds1052.aggregate(new HashSet<>(Arrays.asList(0, 1, 2, 3)), Aggregator.COUNT);
+		assertEquals(Collections.emptyList(), count.getDimensionsSizes());
+		assertEquals(24, count.valueAt(), 0);
+	}
+
+	@Test
+	public void testParallel() throws SSBDatasetException {
+		// large enough to be split over the fork/join pool
+		int[] sizes = { 40, 900, 3 };
+		SSBDataset ds = new SSBDataset(
+				JsonStatGenerator.builder().sizes(sizes).missingRatio(0.15).decimalRatio(0).build().generate());
+
+		SSBDataset sum = ds.aggregate(Collections.singleton(1), Aggregator.SUM);
+		for (int i = 0; i < sizes[0]; i++) {
+			for (int k = 0; k < sizes[2]; k++) {
+				double expected = 0;
+				for (int j = 0; j < sizes[1]; j++) {
+					if (!ds.isMissing(i, j, k)) {
+						expected += ds.valueAt(i, j, k);
+					}
+				}
+				assertEquals(expected, sum.valueAt(i, k), 0);
+			}
+		}
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testNoSuchDimension() throws SSBDatasetException {
+		ds1052.aggregate(Collections.singleton(4), Aggregator.SUM);
+	}
+
+}
@@ -0,0 +1,46 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_Builder {
+
+	private static String largeTest;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		// 3 dimensions, 60 000 values
+		largeTest = JsonStatGenerator.builder().sizes(20, 1000, 3).missingRatio(0.15).build().generate();
+	}
+
+	@Test
+	public void testParallelSameAsSequential() throws SSBDatasetException {
+		SSBDataset sequential = new SSBDataset(largeTest);
+		SSBDataset parallel = SSBDataset.builder().parallelism(4).build(largeTest);
+		assertEquals(60000, parallel.cells().size());
+		assertEquals(sequential.cells(), parallel.cells());
+	}
+
+	@Test
+	public void testParallelWithExecutor() throws SSBDatasetException {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			SSBDataset sequential = new SSBDataset(largeTest);
+			SSBDataset parallel = SSBDataset.builder().parallelism(3).executor(executor).build(largeTest);
+			assertEquals(sequential.cells(), parallel.cells());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParallelismNotPositive() {
+		SSBDataset.builder().parallelism(0);
+	}
+
+}
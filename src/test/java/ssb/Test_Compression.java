@@ -0,0 +1,176 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class Test_Compression {
+
+	private static HttpServer server;
+	private static ExecutorService serverExecutor;
+	private static String baseUrl;
+	private static final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+	private static final AtomicInteger notModified = new AtomicInteger();
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		byte[] json = ds1052Test.getBytes(StandardCharsets.UTF_8);
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/gzip", exchange -> {
+			acceptEncoding.set(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+			if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			exchange.getResponseHeaders().set("ETag", "\"v1\"");
+			send(exchange, "gzip", gzip(json));
+		});
+		server.createContext("/deflate", exchange -> send(exchange, "deflate", deflate(json, false)));
+		server.createContext("/rawdeflate", exchange -> send(exchange, "deflate", deflate(json, true)));
+		server.createContext("/plain", exchange -> send(exchange, null, json));
+		server.createContext("/badgzip", exchange -> send(exchange, "gzip", json));
+		server.createContext("/shortdeflate", exchange -> {
+			byte[] deflated = deflate(json, false);
+			send(exchange, "deflate", Arrays.copyOf(deflated, deflated.length / 2));
+		});
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	private static void send(HttpExchange exchange, String encoding, byte[] body) throws IOException {
+		if (encoding != null) {
+			exchange.getResponseHeaders().set("Content-Encoding", encoding);
+		}
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(bytes);
+		}
+		return compressed.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] bytes, boolean raw) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+			out.write(bytes);
+		}
+		return compressed.toByteArray();
+	}
+
+	@Test
+	public void testGzip() throws Exception {
+		SSBDataset ds = new SSBDataset(new URL(baseUrl + "/gzip"));
+		assertEquals("gzip, deflate", acceptEncoding.get());
+		assertEquals(new SSBDataset(ds1052Test).cells(), ds.cells());
+	}
+
+	@Test
+	public void testDeflate() throws Exception {
+		SSBDataset ds = new SSBDataset(new URL(baseUrl + "/deflate"));
+		assertEquals(4.6, ds.valueAt(0, 0, 9, 1), 0);
+	}
+
+	@Test
+	public void testRawDeflate() throws Exception {
+		SSBDataset ds = new SSBDataset(new URL(baseUrl + "/rawdeflate"));
+		assertEquals(4.6, ds.valueAt(0, 0, 9, 1), 0);
+	}
+
+	@Test
+	public void testSmallReadBuffer() throws Exception {
+		SSBDataset ds = SSBDataset.builder().readBufferSize(7).build(new URL(baseUrl + "/gzip"));
+		assertEquals(4.6, ds.valueAt(0, 0, 9, 1), 0);
+	}
+
+	@Test
+	public void testMaxResponseSize() throws Exception {
+		int size = ds1052Test.getBytes(StandardCharsets.UTF_8).length;
+		SSBDataset ds = SSBDataset.builder().maxResponseSize(size).build(new URL(baseUrl + "/plain"));
+		assertEquals(4.6, ds.valueAt(0, 0, 9, 1), 0);
+		try {
+			SSBDataset.builder().maxResponseSize(size - 1).build(new URL(baseUrl + "/plain"));
+			fail("expected SSBDatasetException");
+		} catch (SSBDatasetException e) {
+			assertEquals(IOException.class, e.getCause().getClass());
+		}
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testMaxResponseSizeInflated() throws Exception {
+		// more than the compressed size, less than the json
+		int size = gzip(ds1052Test.getBytes(StandardCharsets.UTF_8)).length + 1;
+		SSBDataset.builder().maxResponseSize(size).build(new URL(baseUrl + "/gzip"));
+	}
+
+	@Test
+	public void testBadBody() throws Exception {
+		// the connection of a failed load is released: later loads still work
+		SSBDataset.Builder builder = SSBDataset.builder().cacheDirectory(folder.getRoot().toPath());
+		for (int i = 0; i < 10; i++) {
+			for (String path : new String[] { "/badgzip", "/shortdeflate" }) {
+				try {
+					builder.build(new URL(baseUrl + path));
+					fail("expected SSBDatasetException");
+				} catch (SSBDatasetException e) {
+					// expected
+				}
+			}
+		}
+		SSBDataset ds = builder.build(new URL(baseUrl + "/plain"));
+		assertEquals(4.6, ds.valueAt(0, 0, 9, 1), 0);
+	}
+
+	@Test
+	public void testCacheKeepsInflatedJson() throws Exception {
+		SSBDataset.Builder builder = SSBDataset.builder().cacheDirectory(folder.getRoot().toPath());
+		SSBDataset first = builder.build(new URL(baseUrl + "/gzip"));
+		int before = notModified.get();
+		SSBDataset second = builder.build(new URL(baseUrl + "/gzip"));
+		assertEquals(before + 1, notModified.get());
+		assertEquals(first.cells(), second.cells());
+	}
+
+}
@@ -0,0 +1,122 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_CoordinateResolver {
+
+	private static SSBDataset ds1052;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds1052 = new SSBDataset(ds1052Test);
+	}
+
+	@Test
+	public void testValueAtCodes() {
+		Map<String, String> codes = new HashMap<>();
+		codes.put("Tid", "2015M08");
+		codes.put("ContentsCode", "Arbeidslause4");
+		assertEquals(4.6, ds1052.valueAt(codes), 0);
+		assertEquals(ds1052.indexOf(0, 0, 7, 1), ds1052.indexOf(codes));
+		codes.put("Kjonn", "0");
+		codes.put("Alder", "15-74");
+		assertEquals(4.6, ds1052.valueAt(codes), 0);
+		codes.put("Tid", "2016M01");
+		assertTrue(ds1052.isMissing(codes));
+	}
+
+	@Test
+	public void testInvalidCodes() {
+		assertInvalid(Collections.singletonMap("Tid", "2015M08"));
+		Map<String, String> codes = new HashMap<>();
+		codes.put("Tid", "2014M08");
+		codes.put("ContentsCode", "Arbeidslause4");
+		assertInvalid(codes);
+		codes.put("Tid", "2015M08");
+		codes.put("Region", "0301");
+		assertInvalid(codes);
+	}
+
+	@Test
+	public void testResolver() {
+		CoordinateResolver resolver = ds1052.resolver("Tid", "ContentsCode");
+		assertEquals(Arrays.asList("Tid", "ContentsCode"), resolver.getDimensionsIds());
+		assertEquals(4.6, resolver.valueAt("2015M08", "Arbeidslause4"), 0);
+		assertEquals(110, resolver.valueAt("2015M01", "Arbeidslause2"), 0);
+		assertFalse(resolver.isMissing("2015M12", "Arbeidslause4"));
+		assertTrue(resolver.isMissing("2016M01", "Arbeidslause2"));
+		assertEquals(ds1052.indexOf(0, 0, 3, 1), resolver.indexOf("2015M04", "Arbeidslause4"));
+	}
+
+	@Test
+	public void testResolverWithFixedCategory() {
+		CoordinateResolver resolver = ds1052.resolver(Arrays.asList("Tid"),
+				Collections.singletonMap("ContentsCode", "Arbeidslause4"));
+		assertEquals(4.6, resolver.valueAt("2015M08"), 0);
+		assertEquals(4.5, resolver.valueAt("2015M12"), 0);
+	}
+
+	@Test
+	public void testInvalidResolver() {
+		try {
+			ds1052.resolver("Tid");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("ContentsCode"));
+		}
+		try {
+			ds1052.resolver("Tid", "Tid");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("twice"));
+		}
+		try {
+			ds1052.resolver("Tid", "Region");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("Region"));
+		}
+		CoordinateResolver resolver = ds1052.resolver("Tid", "ContentsCode");
+		try {
+			resolver.valueAt("2015M08");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("codes"));
+		}
+		try {
+			resolver.valueAt("2015M08", "Arbeidslause9");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("Arbeidslause9"));
+		}
+	}
+
+	@Test
+	public void testSlice() throws SSBDatasetException {
+		SSBDataset slice = ds1052.slice(Collections.singletonMap(2, new int[] { 7, 0 }));
+		assertEquals(Arrays.asList("2015M08", "2015M01"), slice.getDimensionCategoryCodes("Tid"));
+		assertEquals(4.6, slice.resolver("Tid", "ContentsCode").valueAt("2015M08", "Arbeidslause4"), 0);
+	}
+
+	private static void assertInvalid(Map<String, String> codes) {
+		try {
+			ds1052.valueAt(codes);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
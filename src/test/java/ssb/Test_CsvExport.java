@@ -0,0 +1,124 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_CsvExport {
+
+	private static SSBDataset ds1052;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds1052 = new SSBDataset(ds1052Test);
+	}
+
+	@Test
+	public void testLongFormat() throws Exception {
+		String[] rows = csv(ExportSpec.longFormat().build()).split("\r\n");
+		assertEquals(27, rows.length);
+		assertEquals("Kjonn,Alder,Tid,ContentsCode,value,status", rows[0]);
+		assertEquals("0,15-74,2015M01,Arbeidslause2,110,", rows[1]);
+		assertEquals("0,15-74,2015M02,Arbeidslause4,4.1,", rows[4]);
+		assertEquals("0,15-74,2016M01,Arbeidslause4,,..", rows[26]);
+	}
+
+	@Test
+	public void testLongFormatFilteredWithLabels() throws Exception {
+		String csv = csv(ExportSpec.longFormat().filters(Collections.singletonMap(2, 7)).labels(true).header(false)
+				.build());
+		assertEquals("0,Both sexes,15-74,15-74 years,Arbeidslause2,"
+				+ "\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",127,\r\n"
+				+ "0,Both sexes,15-74,15-74 years,Arbeidslause4,"
+				+ "\"Unemployment rate (LFS), seasonally adjusted\",4.6,\r\n",
+				csv);
+	}
+
+	@Test
+	public void testLongFormatHeaderWithLabels() throws Exception {
+		String header = csv(ExportSpec.longFormat().filters(Collections.singletonMap(0, 0)).labels(true).build())
+				.split("\r\n")[0];
+		assertEquals("Alder,Alder_label,Tid,Tid_label,ContentsCode,ContentsCode_label,value,status", header);
+		header = csv(ExportSpec.longFormat().codes(false).labels(true).build()).split("\r\n")[0];
+		assertEquals("Kjonn,Alder,Tid,ContentsCode,value,status", header);
+	}
+
+	@Test
+	public void testPivot() throws Exception {
+		String[] rows = csv(ExportSpec.pivot(2, 3).build()).split("\r\n");
+		assertEquals(14, rows.length);
+		assertEquals("Tid,Arbeidslause2,Arbeidslause4", rows[0]);
+		assertEquals("2015M02,114,4.1", rows[2]);
+		assertEquals("2016M01,..,..", rows[13]);
+
+		rows = csv(ExportSpec.pivot(3, 2).delimiter('\t').labels(true).build()).split("\r\n");
+		assertEquals(3, rows.length);
+		assertTrue(rows[0].startsWith("contents\t2015M01\t2015M02\t"));
+		assertTrue(rows[2].startsWith("Unemployment rate (LFS), seasonally adjusted\t4\t4.1\t"));
+	}
+
+	@Test
+	public void testPivotMatchesTable() throws Exception {
+		TableResult table = ds1052.tableResult(2, 3);
+		String[] rows = csv(ExportSpec.pivot(2, 3).header(false).build()).split("\r\n");
+		for (int i = 0; i < table.rows(); i++) {
+			String[] fields = rows[i].split(",", -1);
+			for (int j = 0; j < table.columns(); j++) {
+				if (!table.isMissing(i, j)) {
+					assertEquals(table.value(i, j), Double.parseDouble(fields[j + 1]), 0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFormatter() throws Exception {
+		String[] rows = csv(ExportSpec.pivot(2, 3).formatter(ValueFormatter.numberFormat(Locale.FRANCE)).build())
+				.split("\r\n");
+		assertEquals("2015M02,114,\"4,1\"", rows[2]);
+	}
+
+	@Test
+	public void testOutputStream() throws Exception {
+		ExportSpec spec = ExportSpec.longFormat().labels(true).build();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ds1052.writeCsv(out, spec);
+		assertEquals(csv(spec), new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testPivotSameDimensions() throws Exception {
+		csv(ExportSpec.pivot(2, 2).build());
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testWrongFilter() throws Exception {
+		csv(ExportSpec.longFormat().filters(Collections.singletonMap(4, 0)).build());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoCodesNorLabels() {
+		ExportSpec.longFormat().codes(false).build();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testQuoteDelimiter() {
+		ExportSpec.longFormat().delimiter('"');
+	}
+
+	private static String csv(ExportSpec spec) throws SSBDatasetException {
+		StringWriter out = new StringWriter();
+		ds1052.writeCsv(out, spec);
+		return out.toString();
+	}
+
+}
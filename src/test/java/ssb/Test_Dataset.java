@@ -1,8 +1,11 @@
 package ssb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -52,6 +55,16 @@ public class Test_Dataset {
 		assertEquals(expectedValue, dataset.getValue());
 	}
 
+	@Test
+	public void testGetValueStrings() throws Exception {
+		SSBDataset strings = new SSBDataset(ds1052Test.replace("110,4,114,4.1", "\"110\",\"n/a\",114,\"4.1\""));
+		assertEquals(Arrays.asList(110.0, null, 114, 4.1), strings.getDs().getValue().subList(0, 4));
+		assertEquals(110.0, strings.cells().get(Arrays.asList(0, 0, 0, 0)).getValue());
+		assertNull(strings.cells().get(Arrays.asList(0, 0, 0, 1)).getValue());
+		assertTrue(strings.isMissing(0, 0, 0, 1));
+		assertEquals(4.1, strings.valueAt(0, 0, 1, 1), 0);
+	}
+
 	@Test
 	public void testGetStatus() throws Exception {
 		int expectedSize = 2;
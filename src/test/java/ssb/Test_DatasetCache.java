@@ -0,0 +1,171 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.cache.CacheStats;
+
+public class Test_DatasetCache {
+
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	private AtomicInteger loads;
+	private DatasetCache.Loader loader;
+
+	@Before
+	public void setUp() {
+		loads = new AtomicInteger();
+		loader = source -> {
+			loads.incrementAndGet();
+			return new SSBDataset(ds1052Test);
+		};
+	}
+
+	@Test
+	public void testHitAndMiss() throws SSBDatasetException {
+		DatasetCache cache = DatasetCache.builder().loader(loader).build();
+		SSBDataset ds = cache.get("1052");
+		assertSame(ds, cache.get("1052"));
+		assertEquals(1, loads.get());
+		CacheStats stats = cache.stats();
+		assertEquals(1, stats.hitCount());
+		assertEquals(1, stats.missCount());
+		assertEquals(1, stats.loadSuccessCount());
+	}
+
+	@Test
+	public void testConcurrentLoadsOnce() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		DatasetCache cache = DatasetCache.builder().loader(source -> {
+			try {
+				loading.await(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return loader.load(source);
+		}).build();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<SSBDataset>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(() -> cache.get("1052")));
+			}
+			loading.countDown();
+			SSBDataset ds = futures.get(0).get();
+			for (Future<SSBDataset> future : futures) {
+				assertSame(ds, future.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	public void testEvictByCount() throws SSBDatasetException {
+		DatasetCache cache = DatasetCache.builder().maximumCount(2).loader(loader).build();
+		cache.get("a");
+		cache.get("b");
+		cache.get("c");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.stats().evictionCount());
+	}
+
+	@Test
+	public void testEvictByBytes() throws SSBDatasetException {
+		long bytes = new SSBDataset(ds1052Test).estimatedBytes();
+		DatasetCache cache = DatasetCache.builder().maximumBytes(bytes * 3 / 2).loader(loader).build();
+		cache.get("a");
+		cache.get("b");
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.stats().evictionCount());
+		assertTrue(cache.estimatedBytes() <= bytes * 3 / 2);
+	}
+
+	@Test
+	public void testEvictByCountWithinBytes() throws SSBDatasetException {
+		long bytes = new SSBDataset(ds1052Test).estimatedBytes();
+		for (int count = 1; count <= 3; count++) {
+			DatasetCache cache = DatasetCache.builder().maximumBytes(bytes * 1000).maximumCount(count).loader(loader)
+					.build();
+			for (int i = 0; i < 20; i++) {
+				cache.get(Integer.toString(i));
+			}
+			assertEquals(count, cache.size());
+			assertNotNull(cache.getIfPresent("19"));
+		}
+	}
+
+	@Test
+	public void testKeepDatasetsUpToBytes() throws SSBDatasetException {
+		long bytes = new SSBDataset(ds1052Test).estimatedBytes();
+		DatasetCache cache = DatasetCache.builder().maximumBytes(bytes * 3).loader(loader).build();
+		cache.get("a");
+		cache.get("b");
+		cache.get("c");
+		assertEquals(3, cache.size());
+		assertEquals(0, cache.stats().evictionCount());
+		cache.get("d");
+		assertEquals(3, cache.size());
+		assertNull(cache.getIfPresent("a"));
+	}
+
+	@Test
+	public void testEstimatedBytes() throws SSBDatasetException {
+		SSBDataset eager = new SSBDataset(ds1052Test);
+		SSBDataset lazy = SSBDataset.builder().lazyCells(true).build(ds1052Test);
+		assertTrue(lazy.estimatedBytes() > 26 * 8);
+		assertTrue(eager.estimatedBytes() > lazy.estimatedBytes() + 26 * 100);
+	}
+
+	@Test
+	public void testExpireAfterWrite() throws SSBDatasetException {
+		DatasetCache cache = DatasetCache.builder().expireAfterWrite(0, TimeUnit.SECONDS).loader(loader).build();
+		cache.get("1052");
+		cache.get("1052");
+		assertEquals(2, loads.get());
+		assertNull(cache.getIfPresent("1052"));
+	}
+
+	@Test
+	public void testInvalidate() throws SSBDatasetException {
+		DatasetCache cache = DatasetCache.builder().loader(loader).build();
+		cache.get("1052");
+		cache.invalidate("1052");
+		assertNull(cache.getIfPresent("1052"));
+		cache.get("1052");
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void testLoadFailure() {
+		SSBDatasetException failure = new SSBDatasetException("no such dataset");
+		DatasetCache cache = DatasetCache.builder().loader(source -> {
+			throw failure;
+		}).build();
+		try {
+			cache.get("1052");
+		} catch (SSBDatasetException e) {
+			assertSame(failure, e);
+			return;
+		}
+		throw new AssertionError("expected SSBDatasetException");
+	}
+
+}
@@ -0,0 +1,98 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_Dimension {
+
+	private static SSBDataset ds1052;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds1052 = new SSBDataset(ds1052Test);
+	}
+
+	@Test
+	public void testDimensions() {
+		List<Dimension> dimensions = ds1052.dimensions();
+		assertEquals(4, dimensions.size());
+		Dimension time = ds1052.dimension("Tid");
+		assertSame(time, dimensions.get(2));
+		assertSame(time, ds1052.dimension(2));
+		assertEquals("Tid", time.getId());
+		assertEquals(2, time.getIndex());
+		assertEquals("time", time.getLabel());
+		assertEquals(13, time.getSize());
+		assertEquals(2, time.getStride());
+		assertEquals(Role.TIME, time.getRole());
+		assertEquals(1, ds1052.dimension("ContentsCode").getStride());
+		assertNull(ds1052.dimension("Kjonn").getRole());
+		assertNull(ds1052.dimension("Region"));
+	}
+
+	@Test
+	public void testCategories() {
+		Dimension contents = ds1052.dimension("ContentsCode");
+		Category rate = contents.getCategory("Arbeidslause4");
+		assertSame(rate, contents.getCategory(1));
+		assertEquals(1, rate.getIndex());
+		assertEquals("Arbeidslause4", rate.getCode());
+		assertEquals("Unemployment rate (LFS), seasonally adjusted", rate.getLabel());
+		assertEquals(Collections.singletonMap("base", "per cent"), rate.getUnit());
+		assertNull(ds1052.dimension("Tid").getCategory("2015M08").getUnit());
+		assertNull(contents.getCategory("Arbeidslause9"));
+		assertEquals(-1, contents.getCategoryIndex("Arbeidslause9"));
+		assertEquals(Arrays.asList("Arbeidslause2", "Arbeidslause4"), contents.getCategoryCodes());
+	}
+
+	@Test
+	public void testRoles() {
+		List<Role> roles = ds1052.roles();
+		assertEquals(2, roles.size());
+		assertEquals(Role.TIME, roles.get(0).getName());
+		assertEquals(Arrays.asList("Tid"), roles.get(0).getDimensionsIds());
+		assertEquals(Arrays.asList("ContentsCode"), roles.get(1).getDimensionsIds());
+	}
+
+	@Test
+	public void testLabelsFollowTheIndex() throws SSBDatasetException {
+		// labels listed in another order than the index
+		String json = "{\"dataset\":{\"dimension\":{\"a\":{\"label\":\"A\",\"category\":{\"index\":{\"x\":0,\"y\":1},"
+				+ "\"label\":{\"y\":\"Y\",\"x\":\"X\"}}},\"id\":[\"a\"],\"size\":[2]},\"value\":[1,2]}}";
+		SSBDataset ds = new SSBDataset(json);
+		assertEquals(Arrays.asList("X", "Y"), ds.getDimensionCategoryLabels(0));
+		assertEquals("Y", ds.cells().get(Arrays.asList(1)).getLabels().get(0));
+		assertNull(ds.getDimensionsRoles());
+		assertEquals(0, ds.roles().size());
+	}
+
+	@Test
+	public void testAccessorsShareReadOnlyViews() {
+		assertSame(ds1052.getDimensionsIds(), ds1052.getDimensionsIds());
+		assertSame(ds1052.getDimensionCategoryLabels(2), ds1052.getDimensionCategoryLabels("Tid"));
+		assertReadOnly(ds1052.getDimensionsSizes());
+		assertReadOnly(ds1052.getDimensionsLabels());
+		assertReadOnly(ds1052.getDimensionCategoryLabels(2));
+		assertReadOnly(ds1052.dimension(2).getCategories());
+	}
+
+	private static void assertReadOnly(List<?> list) {
+		try {
+			list.set(0, null);
+			fail("Expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class Test_HttpCache {
+
+	private static HttpServer server;
+	private static String baseUrl;
+	private static final AtomicInteger fullResponses = new AtomicInteger();
+	private static final AtomicInteger notModified = new AtomicInteger();
+	private static final AtomicReference<String> ifModifiedSince = new AtomicReference<>();
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		// validated with an ETag
+		server.createContext("/etag", exchange -> {
+			if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+			} else {
+				exchange.getResponseHeaders().set("ETag", "\"v1\"");
+				send(exchange);
+			}
+		});
+		// no validators from the server: the dataset's 'updated' is used
+		server.createContext("/updated", exchange -> {
+			String since = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+			ifModifiedSince.set(since);
+			if (since != null) {
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+			} else {
+				send(exchange);
+			}
+		});
+		server.start();
+		baseUrl = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		server.stop(0);
+	}
+
+	@Before
+	public void setUp() {
+		fullResponses.set(0);
+		notModified.set(0);
+		ifModifiedSince.set(null);
+	}
+
+	private static void send(HttpExchange exchange) throws IOException {
+		fullResponses.incrementAndGet();
+		byte[] body = ds1052Test.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	@Test
+	public void testRevalidateWithETag() throws Exception {
+		Path cacheDir = folder.newFolder().toPath();
+		URL url = new URL(baseUrl + "/etag");
+
+		SSBDataset first = SSBDataset.builder().cacheDirectory(cacheDir).build(url);
+		SSBDataset second = SSBDataset.builder().cacheDirectory(cacheDir).build(url);
+
+		assertEquals(1, fullResponses.get());
+		assertEquals(1, notModified.get());
+		assertEquals(first.getDs().getValue(), second.getDs().getValue());
+		assertEquals(first.cells(), second.cells());
+	}
+
+	@Test
+	public void testRevalidateWithUpdated() throws Exception {
+		Path cacheDir = folder.newFolder().toPath();
+		URL url = new URL(baseUrl + "/updated");
+
+		SSBDataset.builder().cacheDirectory(cacheDir).build(url);
+		SSBDataset second = SSBDataset.builder().cacheDirectory(cacheDir).build(url);
+
+		assertEquals(1, fullResponses.get());
+		assertEquals(1, notModified.get());
+		// 'updated' of the dataset is 2016-03-14T10:19:18Z
+		assertEquals("Mon, 14 Mar 2016 10:19:18 GMT", ifModifiedSince.get());
+		assertEquals("Statistics Norway", second.source());
+	}
+
+	@Test
+	public void testUnusableCacheDirectory() throws Exception {
+		Path notADirectory = folder.newFile().toPath();
+		URL url = new URL(baseUrl + "/etag");
+
+		SSBDataset first = SSBDataset.builder().cacheDirectory(notADirectory).build(url);
+		SSBDataset second = SSBDataset.builder().cacheDirectory(notADirectory).build(url);
+
+		assertEquals(2, fullResponses.get());
+		assertEquals(new SSBDataset(ds1052Test).getDs().getValue(), first.getDs().getValue());
+		assertEquals(first.cells(), second.cells());
+	}
+
+	@Test
+	public void testEntryNotStored() throws Exception {
+		Path cacheDir = folder.newFolder().toPath();
+		URL url = new URL(baseUrl + "/etag");
+		SSBDataset.builder().cacheDirectory(cacheDir).build(url);
+
+		// the entry cannot replace a directory holding a file
+		Path entry;
+		try (Stream<Path> files = Files.list(cacheDir)) {
+			entry = files.filter(file -> file.toString().endsWith(".cache")).findFirst().get();
+		}
+		Files.delete(entry);
+		Files.createFile(Files.createDirectory(entry).resolve("blocker"));
+
+		SSBDataset ds = SSBDataset.builder().cacheDirectory(cacheDir).build(url);
+		assertEquals(2, fullResponses.get());
+		assertEquals("Statistics Norway", ds.source());
+		assertTrue(Files.isDirectory(entry));
+		try (Stream<Path> files = Files.list(cacheDir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	@Test
+	public void testNoCache() throws Exception {
+		URL url = new URL(baseUrl + "/etag");
+		new SSBDataset(url);
+		new SSBDataset(url);
+		assertEquals(2, fullResponses.get());
+		assertEquals(0, notModified.get());
+	}
+
+	@Test
+	public void testNoCacheNoValidators() throws Exception {
+		SSBDataset.builder().build(new URL(baseUrl + "/updated"));
+		assertNull(ifModifiedSince.get());
+	}
+
+}
@@ -0,0 +1,116 @@
+package ssb;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class Test_JsonStatGenerator {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testDimensions() throws SSBDatasetException {
+		SSBDataset ds = new SSBDataset(JsonStatGenerator.builder().sizes(3, 4, 5).build().generate());
+		assertEquals(Arrays.asList(3, 4, 5), ds.getDimensionsSizes());
+		assertEquals(Arrays.asList("d0", "d1", "d2"), ds.getDimensionsIds());
+		assertEquals("time", ds.getDimensionRole(1));
+		assertEquals("metric", ds.getDimensionRole(2));
+		assertEquals("category 1.3", ds.getDimensionCategoryLabels(1).get(3));
+		assertEquals(60, ds.cells().size());
+	}
+
+	@Test
+	public void testRolesAndLabels() throws SSBDatasetException {
+		String json = JsonStatGenerator.builder().sizes(2, 3).role(0, "geo").labelLength(30).build().generate();
+		SSBDataset ds = new SSBDataset(json);
+		assertEquals(Collections.singletonMap("geo", Arrays.asList("d0")), ds.getDimensionsRoles());
+		for (Object label : ds.getDimensionCategoryLabels(1)) {
+			assertEquals(30, label.toString().length());
+		}
+	}
+
+	@Test
+	public void testMissingAndDecimals() throws SSBDatasetException {
+		JsonStatGenerator generator = JsonStatGenerator.builder().sizes(10, 100, 20).missingRatio(0.1)
+				.decimalRatio(0.25).build();
+		SSBDataset ds = SSBDataset.builder().lazyCells(true).build(generator.generate());
+		ValueStore values = ds.getDs().getValues();
+		int missing = 0;
+		int decimals = 0;
+		for (int i = 0; i < values.size(); i++) {
+			if (values.isMissing(i)) {
+				missing++;
+				assertEquals("..", values.status(i));
+			} else if (values.isDecimal(i)) {
+				decimals++;
+				assertNotEquals(Math.rint(values.get(i)), values.get(i), 0);
+			}
+		}
+		assertEquals(20000, values.size());
+		assertTrue("missing " + missing, missing > 1800 && missing < 2200);
+		assertTrue("decimals " + decimals, decimals > 4000 && decimals < 5000);
+		assertEquals(missing, ds.getDs().getStatus().size());
+	}
+
+	@Test
+	public void testNoMissing() throws SSBDatasetException {
+		String json = JsonStatGenerator.builder().sizes(50, 50).missingRatio(0).decimalRatio(0).build().generate();
+		SSBDataset ds = SSBDataset.builder().lazyCells(true).build(json);
+		assertTrue(ds.getDs().getStatus().isEmpty());
+		assertTrue(ds.getDs().getValue().stream().allMatch(value -> value instanceof Integer));
+	}
+
+	@Test
+	public void testDeterministic() throws Exception {
+		JsonStatGenerator generator = JsonStatGenerator.builder().sizes(4, 30, 6).build();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.write(out);
+		assertEquals(generator.generate(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+		String other = JsonStatGenerator.builder().sizes(4, 30, 6).seed(1).build().generate();
+		assertNotEquals(generator.generate(), other);
+	}
+
+	@Test
+	public void testCommandLine() throws Exception {
+		Path out = folder.getRoot().toPath().resolve("cube.json");
+		JsonStatGenerator.run(new String[] { "--sizes", "2x3x4", "--role", "0=geo", "--missing", "0.5", "--seed",
+				"7", "--out", out.toString() }, null);
+		SSBDataset ds = new SSBDataset(new String(Files.readAllBytes(out), StandardCharsets.UTF_8));
+		assertEquals(Arrays.asList(2, 3, 4), ds.getDimensionsSizes());
+		assertEquals("geo", ds.getDimensionRole(0));
+
+		String expected = JsonStatGenerator.builder().sizes(2, 3, 4).role(0, "geo").missingRatio(0.5).seed(7)
+				.build().generate();
+		assertEquals(expected, new String(Files.readAllBytes(out), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testParseSizes() {
+		assertArrayEquals(new int[] { 20, 1000, 1000 }, JsonStatGenerator.parseSizes("20x1000x1000"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownOption() throws Exception {
+		JsonStatGenerator.run(new String[] { "--size", "2x3" }, new ByteArrayOutputStream());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadRatio() {
+		JsonStatGenerator.builder().missingRatio(1.5);
+	}
+
+}
@@ -0,0 +1,108 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_JsonStatWriter {
+
+	private static SSBDataset ds;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds = new SSBDataset(ds1052Test);
+	}
+
+	private static SSBDataset roundTrip(SSBDataset original) throws SSBDatasetException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		original.writeJsonStat(out);
+		return SSBDatasetReader.DEFAULT.read(out.toByteArray());
+	}
+
+	@Test
+	public void testMetadata() throws Exception {
+		SSBDataset written = roundTrip(ds);
+		assertEquals(ds.label(), written.label());
+		assertEquals(ds.source(), written.source());
+		assertEquals(ds.updated(), written.updated());
+		assertEquals(ds.getDimensionsIds(), written.getDimensionsIds());
+		assertEquals(ds.getDimensionsSizes(), written.getDimensionsSizes());
+		assertEquals(ds.getDimensionsRoles(), written.getDimensionsRoles());
+		assertEquals(ds.getDs().getDimension(), written.getDs().getDimension());
+	}
+
+	@Test
+	public void testValues() throws Exception {
+		SSBDataset written = roundTrip(ds);
+		assertEquals(ds.getDs().getValue(), written.getDs().getValue());
+		assertEquals(ds.getDs().getStatus(), written.getDs().getStatus());
+		assertEquals(ds.cells(), written.cells());
+		assertTrue(written.isMissing(0, 0, 12, 0));
+		assertFalse(written.isMissing(0, 0, 11, 0));
+	}
+
+	@Test
+	public void testDecimals() throws Exception {
+		SSBDataset decimals = new SSBDataset(ds1052Test.replace("110,4,114", "110.0,4,1.5E-7"));
+		String json = new String(json(decimals, false), StandardCharsets.UTF_8);
+		assertTrue(json, json.contains("\"value\":[110.0,4,1.5E-7,"));
+		assertEquals(decimals.getDs().getValue(), roundTrip(decimals).getDs().getValue());
+	}
+
+	@Test
+	public void testSlice() throws Exception {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[] { 12, 3 });
+		selection.put(3, new int[] { 1 });
+		SSBDataset slice = ds.slice(selection);
+		SSBDataset written = roundTrip(slice);
+		assertEquals(Collections.singletonList("Arbeidslause4"), written.getDimensionCategoryCodes(3));
+		assertEquals(slice.getDs().getValue(), written.getDs().getValue());
+		assertEquals(Collections.singletonMap("0", ".."), written.getDs().getStatus());
+		assertEquals(slice.cells(), written.cells());
+	}
+
+	@Test
+	public void testGzip() throws Exception {
+		byte[] compressed = json(ds, true);
+		assertTrue(compressed.length < json(ds, false).length);
+		SSBDataset written = SSBDatasetReader.DEFAULT.read(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+		assertEquals(ds.getDs().getValue(), written.getDs().getValue());
+		assertEquals(ds.getDs().getDimension(), written.getDs().getDimension());
+	}
+
+	@Test
+	public void testStreamNotClosed() throws Exception {
+		boolean[] closed = new boolean[1];
+		FilterOutputStream out = new FilterOutputStream(new ByteArrayOutputStream()) {
+
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		ds.writeJsonStat(out, true);
+		ds.writeJsonStat(out);
+		assertFalse(closed[0]);
+	}
+
+	private static byte[] json(SSBDataset original, boolean gzip) throws SSBDatasetException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		original.writeJsonStat(out, gzip);
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,118 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class Test_LoadAsync {
+
+	private static HttpServer server;
+	private static ExecutorService executor;
+	private static ExecutorService serverExecutor;
+	private static String baseUri;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/ds", exchange -> {
+			byte[] body = ds1052Test.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.createContext("/slow", exchange -> {
+			exchange.sendResponseHeaders(200, 0);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write("{\"dataset\":".getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		server.createContext("/missing", exchange -> {
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+		});
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.start();
+		baseUri = "http://localhost:" + server.getAddress().getPort();
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+		executor.shutdown();
+	}
+
+	@Test
+	public void testLoadAsync() throws Exception {
+		CompletableFuture<SSBDataset> future = SSBDataset.loadAsync(new URI(baseUri + "/ds"), executor);
+		SSBDataset ds = future.get();
+		assertEquals("Statistics Norway", ds.source());
+		assertEquals(4.6, ds.valueAt(0, 0, 9, 1), 0);
+	}
+
+	@Test
+	public void testLoadAsyncMany() throws Exception {
+		URI uri = new URI(baseUri + "/ds");
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = SSBDataset.builder().lazyCells(true).loadAsync(uri, executor);
+		}
+		CompletableFuture.allOf(futures).get();
+		for (CompletableFuture<?> future : futures) {
+			assertEquals(26, ((SSBDataset) future.get()).cells().size());
+		}
+	}
+
+	@Test
+	public void testReadTimeout() throws Exception {
+		CompletableFuture<SSBDataset> future = SSBDataset.builder().readTimeout(200)
+				.loadAsync(new URI(baseUri + "/slow"), executor);
+		try {
+			future.get();
+			fail("read should time out");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof SSBDatasetException);
+			assertTrue(e.getCause().getCause() instanceof SocketTimeoutException);
+		}
+	}
+
+	@Test
+	public void testNotFound() throws Exception {
+		try {
+			SSBDataset.loadAsync(new URI(baseUri + "/missing"), executor).get();
+			fail("dataset should not be found");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof SSBDatasetException);
+		}
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testBuildWithTimeouts() throws Exception {
+		SSBDataset.builder().connectTimeout(500).readTimeout(200).build(new URI(baseUri + "/slow").toURL());
+	}
+
+}
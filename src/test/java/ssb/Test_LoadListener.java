@@ -0,0 +1,149 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class Test_LoadListener {
+
+	private static final String json = JsonStatGenerator.builder().sizes(1, 1, 13, 2).build().generate();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testBuildFromString() throws SSBDatasetException {
+		List<LoadEvent> events = Collections.synchronizedList(new ArrayList<>());
+		SSBDataset.builder().loadListener(events::add).build(json);
+		assertEquals(Arrays.asList(LoadPhase.PARSE, LoadPhase.INDEX, LoadPhase.CELLS), phases(events));
+		LoadEvent parse = events.get(0);
+		assertNull(parse.getSource());
+		assertEquals(json.length(), parse.getBytes());
+		assertEquals(26, parse.getCells());
+		assertEquals(26, events.get(2).getCells());
+		for (LoadEvent event : events) {
+			assertTrue(event.getNanos() >= 0);
+			assertTrue(event.getAllocatedBytes() >= -1);
+		}
+	}
+
+	@Test
+	public void testLazyCells() throws SSBDatasetException {
+		List<LoadEvent> events = new ArrayList<>();
+		SSBDataset.builder().lazyCells(true).loadListener(events::add).build(json);
+		assertEquals(0, events.get(2).getCells());
+	}
+
+	@Test
+	public void testBuildFromUrl() throws Exception {
+		Path file = folder.newFile("ds.json").toPath();
+		Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+		URL url = file.toUri().toURL();
+		List<LoadEvent> events = new ArrayList<>();
+		SSBDataset.builder().loadListener(events::add).build(url);
+		assertEquals(Arrays.asList(LoadPhase.CONNECT, LoadPhase.PARSE, LoadPhase.INDEX, LoadPhase.CELLS),
+				phases(events));
+		assertEquals(url.toString(), events.get(0).getSource());
+		assertEquals(url.toString(), events.get(1).getSource());
+		assertEquals(Files.size(file), events.get(1).getBytes());
+	}
+
+	@Test
+	public void testTable() throws SSBDatasetException {
+		List<LoadEvent> events = new ArrayList<>();
+		SSBDataset ds = SSBDataset.builder().loadListener(events::add).build(json);
+		events.clear();
+		ds.table(2, 3, Collections.singletonMap(0, 0));
+		assertEquals(Arrays.asList(LoadPhase.TABLE), phases(events));
+		assertEquals("table(d2, d3, {d0=0, d1=0})", events.get(0).getDetail());
+		assertEquals(26, events.get(0).getCells());
+		assertEquals(ds.label(), events.get(0).getSource());
+	}
+
+	@Test
+	public void testSliceKeepsListener() throws SSBDatasetException {
+		List<LoadEvent> events = new ArrayList<>();
+		SSBDataset ds = SSBDataset.builder().loadListener(events::add).build(json);
+		SSBDataset slice = ds.slice(Collections.singletonMap(2, new int[] { 0, 1, 2 }));
+		events.clear();
+		slice.tableResult(2, 3);
+		assertEquals(Arrays.asList(LoadPhase.TABLE), phases(events));
+		assertEquals(6, events.get(0).getCells());
+	}
+
+	@Test
+	public void testMetrics() throws SSBDatasetException {
+		LoadMetrics metrics = new LoadMetrics(4);
+		SSBDataset.Builder builder = SSBDataset.builder().loadListener(metrics);
+		for (int i = 0; i < 6; i++) {
+			builder.build(json);
+		}
+		PhaseMetricsMXBean parse = metrics.phase(LoadPhase.PARSE);
+		assertEquals(6, parse.getCount());
+		assertEquals(4, parse.getWindowCount());
+		assertEquals(json.length(), parse.getMeanBytes(), 0);
+		assertEquals(26, parse.getMeanCells(), 0);
+		assertTrue(parse.getP50Millis() <= parse.getP95Millis());
+		assertTrue(parse.getP99Millis() <= parse.getMaxMillis());
+		assertEquals(0, metrics.phase(LoadPhase.TABLE).getCount());
+		metrics.reset();
+		assertEquals(0, parse.getWindowCount());
+		assertEquals(0, parse.getMaxMillis(), 0);
+	}
+
+	@Test
+	public void testPercentiles() {
+		LoadMetrics metrics = new LoadMetrics(100);
+		for (int i = 1; i <= 100; i++) {
+			metrics.phaseCompleted(new LoadEvent(LoadPhase.TABLE, "ds", null, i * 1000000L, -1, 10, -1));
+		}
+		PhaseMetricsMXBean table = metrics.phase(LoadPhase.TABLE);
+		assertEquals(50, table.getP50Millis(), 0);
+		assertEquals(95, table.getP95Millis(), 0);
+		assertEquals(100, table.getMaxMillis(), 0);
+		assertEquals(50.5, table.getMeanMillis(), 1e-9);
+		assertEquals(0, table.getMeanBytes(), 0);
+	}
+
+	@Test
+	public void testJmx() throws Exception {
+		LoadMetrics metrics = new LoadMetrics().register("test");
+		try {
+			SSBDataset.builder().loadListener(metrics).build(json);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("ssb:type=LoadMetrics,name=\"test\",phase=CELLS");
+			assertEquals(1L, server.getAttribute(name, "Count"));
+			assertEquals("CELLS", server.getAttribute(name, "Phase"));
+		} finally {
+			metrics.unregister();
+		}
+		assertTrue(ManagementFactory.getPlatformMBeanServer()
+				.queryNames(new ObjectName("ssb:type=LoadMetrics,name=\"test\",*"), null).isEmpty());
+	}
+
+	private static List<LoadPhase> phases(List<LoadEvent> events) {
+		List<LoadPhase> phases = new ArrayList<>();
+		for (LoadEvent event : events) {
+			phases.add(event.getPhase());
+		}
+		return phases;
+	}
+
+}
@@ -0,0 +1,135 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_MergeAppend {
+
+	private static SSBDataset ds;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds = new SSBDataset(ds1052Test);
+	}
+
+	private static SSBDataset periods(SSBDataset from, int... catIndexes) throws SSBDatasetException {
+		return from.slice(Collections.singletonMap(2, catIndexes));
+	}
+
+	private static void assertSameDataset(SSBDataset expected, SSBDataset actual) {
+		assertEquals(expected.getDimensionsSizes(), actual.getDimensionsSizes());
+		assertEquals(expected.getDimensionCategoryCodes(2), actual.getDimensionCategoryCodes(2));
+		assertEquals(expected.getDimensionCategoryLabels(3), actual.getDimensionCategoryLabels(3));
+		assertEquals(expected.getDs().getValue(), actual.getDs().getValue());
+		assertEquals(expected.getDs().getStatus(), actual.getDs().getStatus());
+		assertEquals(expected.cells(), actual.cells());
+	}
+
+	@Test
+	public void testAppendPeriod() throws Exception {
+		SSBDataset older = periods(ds, IntStream.range(0, 12).toArray());
+		SSBDataset merged = older.mergeAppend(periods(ds, 12));
+		assertSameDataset(ds, merged);
+		assertEquals(Collections.singletonMap("base", "per cent"),
+				merged.dimension("ContentsCode").getCategory(1).getUnit());
+		assertEquals(12, older.getDimensionsSizes().get(2).intValue());
+	}
+
+	@Test
+	public void testAppendPeriods() throws Exception {
+		SSBDataset older = periods(ds, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		SSBDataset merged = older.mergeAppend(periods(ds, 10, 11, 12));
+		assertSameDataset(ds, merged);
+	}
+
+	@Test
+	public void testAppendLastDimension() throws Exception {
+		SSBDataset older = ds.slice(Collections.singletonMap(3, new int[] { 0 }));
+		SSBDataset merged = older.mergeAppend(ds.slice(Collections.singletonMap(3, new int[] { 1 })));
+		assertSameDataset(ds, merged);
+		assertEquals(Arrays.asList("Arbeidslause2", "Arbeidslause4"), merged.getDimensionCategoryCodes(3));
+	}
+
+	@Test
+	public void testRevisedPeriod() throws Exception {
+		SSBDataset revised = new SSBDataset(ds1052Test.replace("126,4.5,null,null", "125,4.4,130,4.7"));
+		SSBDataset older = periods(ds, IntStream.range(0, 12).toArray());
+		SSBDataset merged = older.mergeAppend(periods(revised, 11, 12));
+		assertEquals(13, merged.getDimensionsSizes().get(2).intValue());
+		assertEquals(127, merged.valueAt(0, 0, 10, 0), 0);
+		assertEquals(125, merged.valueAt(0, 0, 11, 0), 0);
+		assertEquals(4.7, merged.valueAt(0, 0, 12, 1), 0);
+		assertEquals(revised.getDs().getValue(), merged.getDs().getValue());
+		assertEquals(revised.getDs().getStatus(), merged.getDs().getStatus());
+	}
+
+	@Test
+	public void testJsonStat() throws Exception {
+		SSBDataset merged = periods(ds, IntStream.range(0, 12).toArray()).mergeAppend(periods(ds, 12));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		merged.writeJsonStat(out);
+		SSBDataset written = SSBDatasetReader.DEFAULT.read(out.toByteArray());
+		assertSameDataset(ds, written);
+		assertEquals(ds.getDimensionCategoryLabels(2), written.getDimensionCategoryLabels(2));
+	}
+
+	@Test
+	public void testEagerCells() throws Exception {
+		SSBDataset older = eagerPeriods();
+		SSBDataset merged = older.mergeAppend(periods(ds, 12));
+		assertFalse(merged.cells() instanceof CellMap);
+		assertSameDataset(ds, merged);
+		// the cells of the values kept are reused
+		assertSame(older.cells().get(Arrays.asList(0, 0, 3, 1)), merged.cells().get(Arrays.asList(0, 0, 3, 1)));
+		assertEquals("..", merged.cells().get(Arrays.asList(0, 0, 12, 0)).getValue());
+	}
+
+	@Test
+	public void testEagerCellsRevised() throws Exception {
+		SSBDataset revised = new SSBDataset(ds1052Test.replace("126,4.5,null,null", "125,4.4,130,4.7"));
+		SSBDataset older = eagerPeriods();
+		SSBDataset merged = older.mergeAppend(periods(revised, 11, 12));
+		assertEquals(revised.cells(), merged.cells());
+		assertSame(older.cells().get(Arrays.asList(0, 0, 10, 0)), merged.cells().get(Arrays.asList(0, 0, 10, 0)));
+		assertEquals(125, merged.cells().get(Arrays.asList(0, 0, 11, 0)).getValue());
+	}
+
+	// the 12 first periods, with all cells built
+	private static SSBDataset eagerPeriods() throws SSBDatasetException {
+		return new SSBDataset(ds1052Test.replace(",\"2016M01\":12}", "}")
+				.replace(",\"2016M01\":\"2016M01\"}", "}").replace("[1,1,13,2]", "[1,1,12,2]")
+				.replace(",null,null]", "]").replace("{\"24\":\"..\",\"25\":\"..\"}", "{}"));
+	}
+
+	@Test
+	public void testNothingNew() throws Exception {
+		SSBDataset newer = new SSBDataset(ds1052Test);
+		assertSame(newer, ds.mergeAppend(newer));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testOtherDimensions() throws Exception {
+		ds.mergeAppend(ds.aggregate(Collections.singleton(0), Aggregator.SUM));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSeveralDimensionsChanged() throws Exception {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[] { 12 });
+		selection.put(3, new int[] { 1 });
+		periods(ds, IntStream.range(0, 12).toArray()).mergeAppend(ds.slice(selection));
+	}
+
+}
@@ -1,6 +1,9 @@
 package ssb;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.time.Instant;
 import java.util.Arrays;
@@ -86,6 +89,22 @@ public class Test_SSBDataset {
 		// index of dimension 'Kjonn' is 0
 		int expected = 0;
 		assertEquals(expected, ds1052.getDimensionIndex("Kjonn"));
+		assertEquals(2, ds1052.getDimensionIndex("Tid"));
+		assertEquals(3, ds1052.getDimensionIndex("ContentsCode"));
+		assertEquals(-1, ds1052.getDimensionIndex("Region"));
+	}
+
+	@Test
+	public void testGetDimensionCategoryCodes() {
+		assertEquals(Arrays.asList("Arbeidslause2", "Arbeidslause4"), ds1052.getDimensionCategoryCodes("ContentsCode"));
+		assertEquals(Arrays.asList("15-74"), ds1052.getDimensionCategoryCodes(1));
+	}
+
+	@Test
+	public void testGetCategoryIndex() {
+		assertEquals(7, ds1052.getCategoryIndex("Tid", "2015M08"));
+		assertEquals(-1, ds1052.getCategoryIndex("Tid", "2014M08"));
+		assertEquals(-1, ds1052.getCategoryIndex("Region", "0301"));
 	}
 
 	@Test
@@ -208,4 +227,70 @@ public class Test_SSBDataset {
 		ntuple = Arrays.asList(0, 0, 12, 1);
 		assertEquals(expected, ds1052.ntupleToIndex(ntuple));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testValueAt() {
+		assertEquals(110, ds1052.valueAt(0, 0, 0, 0), 0);
+		assertEquals(4.6, ds1052.valueAt(0, 0, 9, 1), 0);
+		assertTrue(Double.isNaN(ds1052.valueAt(0, 0, 12, 1)));
+	}
+
+	@Test
+	public void testIsMissing() {
+		assertFalse(ds1052.isMissing(0, 0, 0, 0));
+		assertTrue(ds1052.isMissing(0, 0, 12, 0));
+		assertTrue(ds1052.isMissing(0, 0, 12, 1));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testValueAtNoSuchCategory() {
+		ds1052.valueAt(0, 0, 13, 0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testValueAtWrongNumberOfCoords() {
+		ds1052.valueAt(0, 0, 1);
+	}
+
+	@Test
+	public void testIndexOf() {
+		assertEquals(0, ds1052.indexOf(0, 0, 0, 0));
+		assertEquals(19, ds1052.indexOf(0, 0, 9, 1));
+		assertEquals(25, ds1052.indexOf(0, 0, 12, 1));
+	}
+
+	@Test
+	public void testCoordsOf() {
+		int[] coords = new int[4];
+		for (int index = 0; index < 26; index++) {
+			assertEquals(index, ds1052.indexOf(ds1052.coordsOf(index, coords)));
+		}
+		assertArrayEquals(new int[] { 0, 0, 9, 1 }, ds1052.coordsOf(19, coords));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testCoordsOfNoSuchValue() {
+		ds1052.coordsOf(26, new int[4]);
+	}
+
+	@Test
+	public void testForEachCell() {
+		int[] visited = new int[2];
+		double[] sum = new double[1];
+		ds1052.forEachCell((coords, value, missing) -> {
+			// storage order
+			assertEquals(visited[0], ds1052.indexOf(coords));
+			assertEquals(ds1052.isMissing(coords), missing);
+			if (missing) {
+				visited[1]++;
+			} else {
+				assertEquals(ds1052.valueAt(coords), value, 0);
+				sum[0] += value;
+			}
+			visited[0]++;
+		});
+		assertEquals(26, visited[0]);
+		assertEquals(2, visited[1]);
+		assertEquals(1506.4, sum[0], 1e-9);
+	}
+}
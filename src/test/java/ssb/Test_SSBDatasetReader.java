@@ -0,0 +1,111 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class Test_SSBDatasetReader {
+
+	private static final String json = JsonStatGenerator.builder().sizes(1, 1, 13, 2).missingRatio(0.1).build()
+			.generate();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSources() throws Exception {
+		SSBDataset expected = new SSBDataset(json);
+		SSBDatasetReader reader = SSBDataset.builder().reader();
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		Path file = folder.newFile("ds.json").toPath();
+		Files.write(file, bytes);
+		List<SSBDataset> read = Arrays.asList(reader.read(json), reader.read(bytes),
+				reader.read(new ByteArrayInputStream(bytes)), reader.read(new StringReader(json)),
+				reader.read(file.toUri().toURL()));
+		for (SSBDataset ds : read) {
+			assertEquals(expected.getDimensionsIds(), ds.getDimensionsIds());
+			assertEquals(expected.cells(), ds.cells());
+		}
+	}
+
+	@Test
+	public void testOptionsAreFixed() throws SSBDatasetException {
+		SSBDataset.Builder builder = SSBDataset.builder().lazyCells(true).valueStorage(ValueStorage.DIRECT);
+		SSBDatasetReader reader = builder.reader();
+		builder.lazyCells(false).valueStorage(ValueStorage.HEAP);
+		SSBDataset ds = reader.read(json);
+		assertTrue(ds.cells() instanceof CellMap);
+		assertTrue(ds.getDs().getValues() instanceof BufferValueStore);
+	}
+
+	@Test
+	public void testWithoutBufferRecycling() throws SSBDatasetException {
+		SSBDatasetReader reader = SSBDataset.builder().bufferRecycling(false).reader();
+		assertEquals(new SSBDataset(json).cells(), reader.read(json.getBytes(StandardCharsets.UTF_8)).cells());
+	}
+
+	@Test
+	public void testSharedByThreads() throws Exception {
+		SSBDatasetReader reader = SSBDataset.builder().reader();
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		SSBDataset expected = reader.read(bytes);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<SSBDataset>> futures = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				futures.add(executor.submit(() -> reader.read(new ByteArrayInputStream(bytes))));
+			}
+			for (Future<SSBDataset> future : futures) {
+				assertEquals(expected.cells(), future.get().cells());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testInvalid() {
+		SSBDatasetReader reader = SSBDataset.builder().reader();
+		try {
+			reader.read("{\"other\":{}}".getBytes(StandardCharsets.UTF_8));
+			fail("Expected SSBDatasetException");
+		} catch (SSBDatasetException e) {
+			assertTrue(e.getMessage().contains("bytes"));
+		}
+		try {
+			reader.read(new StringReader("{\"dataset\":"));
+			fail("Expected SSBDatasetException");
+		} catch (SSBDatasetException e) {
+			assertTrue(e.getMessage().contains("reader"));
+		}
+	}
+
+	@Test
+	public void testMissingFile() throws Exception {
+		URL url = folder.getRoot().toPath().resolve("missing.json").toUri().toURL();
+		try {
+			SSBDataset.builder().reader().read(url);
+			fail("Expected SSBDatasetException");
+		} catch (SSBDatasetException e) {
+			assertTrue(e.getMessage().contains(url.toString()));
+		}
+	}
+
+}
@@ -1,12 +1,20 @@
 package ssb;
 
+import static org.junit.Assert.assertEquals;
+
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 
 import org.junit.Test;
 
 public class Test_SSBDataset_Constructor {
 
+	private static final String VALUES_2X3 = "{\"dataset\":{\"dimension\":{"
+			+ "\"A\":{\"category\":{\"index\":{\"a0\":0,\"a1\":1}}},"
+			+ "\"B\":{\"category\":{\"index\":{\"b0\":0,\"b1\":1,\"b2\":2}}},"
+			+ "\"id\":[\"A\",\"B\"],\"size\":[2,3]},\"value\":[1,2,3,4,5,6]}}";
+
 	// constructor from json string
 	@Test(expected = SSBDatasetException.class)
 	public void testSSBDatasetStringBadJson() throws SSBDatasetException {
@@ -18,6 +26,48 @@ public class Test_SSBDataset_Constructor {
 		new SSBDataset("{\"foo\":89}");
 	}
 
+	@Test(expected = SSBDatasetException.class)
+	public void testSSBDatasetStringDatasetNotObject() throws SSBDatasetException {
+		new SSBDataset("{\"dataset\":[1,2]}");
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSSBDatasetStringNoValueField() throws SSBDatasetException {
+		new SSBDataset("{\"dataset\":{\"dimension\":{\"id\":[],\"size\":[]}}}");
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSSBDatasetStringTooFewValues() throws SSBDatasetException {
+		new SSBDataset(VALUES_2X3.replace("[1,2,3,4,5,6]", "[1,2,3]"));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSSBDatasetStringTooFewValuesLazy() throws SSBDatasetException {
+		SSBDataset.builder().lazyCells(true).build(VALUES_2X3.replace("[1,2,3,4,5,6]", "[1,2,3]"));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSSBDatasetStringTooManyValues() throws SSBDatasetException {
+		new SSBDataset(VALUES_2X3.replace("[1,2,3,4,5,6]", "[1,2,3,4,5,6,7]"));
+	}
+
+	@Test
+	public void testSSBDatasetStringAllValues() throws SSBDatasetException {
+		assertEquals(6, new SSBDataset(VALUES_2X3).cells().size());
+	}
+
+	@Test
+	public void testSSBDatasetStringUnknownFieldsSkipped() throws SSBDatasetException {
+		String json = "{\"version\":\"1.0\",\"dataset\":{\"note\":[\"a\",{\"b\":1}],\"label\":\"l\","
+				+ "\"dimension\":{\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015\":0,\"2016\":1},"
+				+ "\"label\":{\"2015\":\"2015\",\"2016\":\"2016\"}}},\"id\":[\"Tid\"],\"size\":[2],"
+				+ "\"role\":{\"time\":[\"Tid\"]}},\"value\":[1,2.5]},\"extra\":{}}";
+		SSBDataset ds = new SSBDataset(json);
+		assertEquals("l", ds.label());
+		assertEquals(Arrays.asList(1, 2.5), ds.getDs().getValue());
+		assertEquals(2, ds.cells().size());
+	}
+
 	// constructor from url
 	@Test(expected = SSBDatasetException.class)
 	// url not exists
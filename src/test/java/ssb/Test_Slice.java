@@ -0,0 +1,112 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_Slice {
+
+	private static SSBDataset ds1052;
+	private static SSBDataset view;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds1052 = new SSBDataset(ds1052Test);
+
+		// 2015M10, 2016M01 and 2015M01 for time, 2nd category for contents
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[] { 9, 12, 0 });
+		selection.put(3, new int[] { 1 });
+		view = ds1052.slice(selection);
+	}
+
+	@Test
+	public void testDimensions() {
+		assertEquals(Arrays.asList(1, 1, 3, 1), view.getDimensionsSizes());
+		assertEquals(ds1052.getDimensionsIds(), view.getDimensionsIds());
+		assertEquals(Arrays.asList("2015M10", "2016M01", "2015M01"), view.getDimensionCategoryLabels("Tid"));
+		assertEquals(Arrays.asList("Unemployment rate (LFS), seasonally adjusted"),
+				view.getDimensionCategoryLabels(3));
+		assertEquals("metric", view.getDimensionRole(3));
+	}
+
+	@Test
+	public void testValues() {
+		assertEquals(4.6, view.valueAt(0, 0, 0, 0), 0);
+		assertTrue(view.isMissing(0, 0, 1, 0));
+		assertEquals(4, view.valueAt(0, 0, 2, 0), 0);
+		assertEquals(Arrays.asList(4.6, null, 4), view.getDs().getValue());
+
+		Map<String, Object> expectedStatus = new HashMap<>();
+		expectedStatus.put("1", "..");
+		assertEquals(expectedStatus, view.getDs().getStatus());
+	}
+
+	@Test
+	public void testCells() {
+		assertEquals(3, view.cells().size());
+		Cell cell = view.cells().get(Arrays.asList(0, 0, 1, 0));
+		assertEquals("..", cell.getValue());
+		assertEquals(Arrays.asList("Both sexes", "15-74 years", "2016M01", "Unemployment rate (LFS), seasonally adjusted"),
+				cell.getLabels());
+	}
+
+	@Test
+	public void testTable() throws SSBDatasetException {
+		Map<Integer, Integer> filters = new HashMap<>();
+		filters.put(3, 1);
+		List<List<Object>> expected = ds1052.table(2, 0, filters);
+
+		List<List<Object>> table = view.table(2, 0);
+		assertEquals(expected.get(10), table.get(1));
+		assertEquals(expected.get(13), table.get(2));
+		assertEquals(expected.get(1), table.get(3));
+	}
+
+	@Test
+	public void testSliceOfSlice() throws SSBDatasetException {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[] { 2, 1 });
+		SSBDataset subView = view.slice(selection);
+		assertEquals(Arrays.asList("2015M01", "2016M01"), subView.getDimensionCategoryLabels(2));
+		assertEquals(Arrays.asList(4, null), subView.getDs().getValue());
+		assertEquals("..", subView.getDs().getStatus().get("1"));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSliceNoSuchDimension() throws SSBDatasetException {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(4, new int[] { 0 });
+		ds1052.slice(selection);
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSliceNoSuchCategory() throws SSBDatasetException {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[] { 13 });
+		ds1052.slice(selection);
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSliceEmpty() throws SSBDatasetException {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[0]);
+		ds1052.slice(selection);
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testSliceDuplicate() throws SSBDatasetException {
+		Map<Integer, int[]> selection = new HashMap<>();
+		selection.put(2, new int[] { 1, 1 });
+		ds1052.slice(selection);
+	}
+
+}
@@ -0,0 +1,101 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class Test_Snapshot {
+
+	private static SSBDataset ds;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		ds = new SSBDataset(ds1052Test);
+	}
+
+	private SSBDataset roundTrip(SSBDataset original) throws IOException, SSBDatasetException {
+		Path file = folder.newFolder().toPath().resolve("ds.snapshot");
+		original.writeSnapshot(file);
+		return SSBDataset.openSnapshot(file);
+	}
+
+	@Test
+	public void testMetadata() throws Exception {
+		SSBDataset snapshot = roundTrip(ds);
+		assertEquals(ds.label(), snapshot.label());
+		assertEquals(ds.source(), snapshot.source());
+		assertEquals(ds.updated(), snapshot.updated());
+		assertEquals(ds.getDimensionsIds(), snapshot.getDimensionsIds());
+		assertEquals(ds.getDimensionsSizes(), snapshot.getDimensionsSizes());
+		assertEquals(ds.getDimensionsLabels(), snapshot.getDimensionsLabels());
+		assertEquals(ds.getDimensionsRoles(), snapshot.getDimensionsRoles());
+		assertEquals(ds.getDimensionCategoryLabels("Tid"), snapshot.getDimensionCategoryLabels("Tid"));
+		assertEquals(ds.getDs().getDimension(), snapshot.getDs().getDimension());
+	}
+
+	@Test
+	public void testValues() throws Exception {
+		SSBDataset snapshot = roundTrip(ds);
+		assertEquals(ds.getDs().getValue(), snapshot.getDs().getValue());
+		assertEquals(ds.getDs().getStatus(), snapshot.getDs().getStatus());
+		assertEquals(ds.cells(), snapshot.cells());
+		assertEquals(4.6, snapshot.valueAt(0, 0, 9, 1), 0);
+		assertTrue(snapshot.isMissing(0, 0, 12, 0));
+		assertFalse(snapshot.isMissing(0, 0, 11, 0));
+	}
+
+	@Test
+	public void testTable() throws Exception {
+		SSBDataset snapshot = roundTrip(ds);
+		Map<Integer, Integer> filters = new HashMap<>();
+		filters.put(2, 8);
+		assertEquals(ds.table(1, 3, filters), snapshot.table(1, 3, filters));
+	}
+
+	@Test
+	public void testSlice() throws Exception {
+		SSBDataset slice = ds.slice(Collections.singletonMap(2, new int[] { 12, 3 }));
+		SSBDataset snapshot = roundTrip(slice);
+		assertEquals(slice.getDs().getValue(), snapshot.getDs().getValue());
+		assertEquals(slice.getDs().getStatus(), snapshot.getDs().getStatus());
+		assertEquals(slice.getDimensionCategoryLabels(2), snapshot.getDimensionCategoryLabels(2));
+		assertEquals(slice.cells(), snapshot.cells());
+	}
+
+	@Test
+	public void testBuilderEagerCells() throws Exception {
+		Path file = folder.newFile("ds.snapshot").toPath();
+		ds.writeSnapshot(file);
+		SSBDataset snapshot = SSBDataset.builder().openSnapshot(file);
+		assertEquals(ds.cells(), snapshot.cells());
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testNotASnapshot() throws Exception {
+		Path file = folder.newFile("ds.json").toPath();
+		Files.write(file, ds1052Test.getBytes("UTF-8"));
+		SSBDataset.openSnapshot(file);
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testNoSuchFile() throws Exception {
+		SSBDataset.openSnapshot(folder.getRoot().toPath().resolve("none.snapshot"));
+	}
+
+}
@@ -1,11 +1,15 @@
 package ssb;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.junit.BeforeClass;
@@ -147,4 +151,57 @@ public class Test_Table {
 		filters.put(2, 99);
 		List<List<Object>> table = ds1052.table(0, 1, filters);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testTableResult() throws SSBDatasetException {
+		Map<Integer, Integer> filters = new HashMap<Integer, Integer>();
+		filters.put(0, 0);
+		TableResult table = ds1052.tableResult(2, 3, filters);
+
+		assertEquals(13, table.rows());
+		assertEquals(2, table.columns());
+		assertEquals(ds1052.getDimensionCategoryLabels(2), table.rowLabels());
+		assertEquals(ds1052.getDimensionCategoryLabels(3), table.columnLabels());
+
+		assertEquals(110, table.value(0, 0), 0);
+		assertEquals(4.6, table.value(9, 1), 0);
+		assertFalse(table.isMissing(9, 1));
+		assertTrue(table.isMissing(12, 1));
+		assertTrue(Double.isNaN(table.value(12, 1)));
+		assertEquals("..", table.status(12, 1));
+		assertEquals(26, table.values().length);
+	}
+
+	@Test
+	public void testTableRows() throws SSBDatasetException {
+		Map<Integer, Integer> filters = new HashMap<Integer, Integer>();
+		filters.put(3, 1);
+		NumberFormat numberFormat = NumberFormat.getInstance();
+		double[] rates = { 4, 4.1, 4.2, 4.2, 4.3, 4.4, 4.3, 4.6, 4.6, 4.6, 4.6, 4.5 };
+		List<List<Object>> expected = new ArrayList<List<Object>>();
+		expected.add(Arrays.<Object> asList("", "15-74 years"));
+		for (int month = 0; month < rates.length; month++) {
+			expected.add(Arrays.<Object> asList(String.format("2015M%02d", month + 1), numberFormat.format(rates[month])));
+		}
+		expected.add(Arrays.<Object> asList("2016M01", ".."));
+
+		assertEquals(expected, ds1052.table(2, 1, filters));
+		assertEquals(expected, ds1052.tableResult(2, 1, filters).toList(ValueFormatter.numberFormat()));
+	}
+
+	@Test
+	public void testTableResultFormatter() throws SSBDatasetException {
+		TableResult table = ds1052.tableResult(2, 3);
+		List<List<Object>> list = table.toList(ValueFormatter.numberFormat(Locale.FRANCE));
+		assertEquals("4,6", list.get(10).get(2));
+		assertEquals("..", list.get(13).get(2));
+
+		list = table.toList(value -> String.valueOf((long) value));
+		assertEquals("4", list.get(10).get(2));
+	}
+
+	@Test(expected = SSBDatasetException.class)
+	public void testTableResultSameRowCol() throws SSBDatasetException {
+		ds1052.tableResult(1, 1);
+	}
+}
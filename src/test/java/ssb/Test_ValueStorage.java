@@ -0,0 +1,86 @@
+package ssb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class Test_ValueStorage {
+
+	private static SSBDataset heap;
+	private static String largeTest;
+	private static final String ds1052Test = "{\"dataset\":{\"status\":{\"24\":\"..\",\"25\":\"..\"},\"dimension\":{\"Kjonn\":{\"label\":\"sex\",\"category\":{\"index\":{\"0\":0},\"label\":{\"0\":\"Both sexes\"}}},\"Alder\":{\"label\":\"age\",\"category\":{\"index\":{\"15-74\":0},\"label\":{\"15-74\":\"15-74 years\"}}},\"Tid\":{\"label\":\"time\",\"category\":{\"index\":{\"2015M01\":0,\"2015M02\":1,\"2015M03\":2,\"2015M04\":3,\"2015M05\":4,\"2015M06\":5,\"2015M07\":6,\"2015M08\":7,\"2015M09\":8,\"2015M10\":9,\"2015M11\":10,\"2015M12\":11,\"2016M01\":12},\"label\":{\"2015M01\":\"2015M01\",\"2015M02\":\"2015M02\",\"2015M03\":\"2015M03\",\"2015M04\":\"2015M04\",\"2015M05\":\"2015M05\",\"2015M06\":\"2015M06\",\"2015M07\":\"2015M07\",\"2015M08\":\"2015M08\",\"2015M09\":\"2015M09\",\"2015M10\":\"2015M10\",\"2015M11\":\"2015M11\",\"2015M12\":\"2015M12\",\"2016M01\":\"2016M01\"}}},\"ContentsCode\":{\"label\":\"contents\",\"category\":{\"index\":{\"Arbeidslause2\":0,\"Arbeidslause4\":1},\"label\":{\"Arbeidslause2\":\"Unemployment (LFS) (1 000 persons), seasonally adjusted\",\"Arbeidslause4\":\"Unemployment rate (LFS), seasonally adjusted\"},\"unit\":{\"Arbeidslause2\":{\"base\":\"1 000 persons\"},\"Arbeidslause4\":{\"base\":\"per cent\"}}}},\"id\":[\"Kjonn\",\"Alder\",\"Tid\",\"ContentsCode\"],\"size\":[1,1,13,2],\"role\":{\"time\":[\"Tid\"],\"metric\":[\"ContentsCode\"]}},\"label\":\"Employment and unemployment for persons aged 15-74, by sex, age, time and contents\",\"source\":\"Statistics Norway\",\"updated\":\"2016-03-14T10:19:18Z\",\"value\":[110,4,114,4.1,115,4.2,117,4.2,118,4.3,123,4.4,120,4.3,127,4.6,128,4.6,129,4.6,127,4.6,126,4.5,null,null]}}";
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		heap = new SSBDataset(ds1052Test);
+
+		// 'value' before 'dimension': the size of the values is not known
+		// while they are read
+		StringBuilder json = new StringBuilder("{\"dataset\":{\"value\":[");
+		for (int i = 0; i < 50 * 400 * 3; i++) {
+			json.append(i > 0 ? "," : "").append(i % 11 == 0 ? "null" : i % 2 == 0 ? String.valueOf(i) : i + ".25");
+		}
+		json.append("],\"status\":{\"0\":\"..\"},\"dimension\":{");
+		int[] sizes = { 50, 400, 3 };
+		for (int d = 0; d < sizes.length; d++) {
+			json.append("\"d").append(d).append("\":{\"label\":\"dim").append(d).append("\",\"category\":{\"label\":{");
+			for (int c = 0; c < sizes[d]; c++) {
+				json.append(c > 0 ? "," : "").append("\"").append(c).append("\":\"cat").append(c).append("\"");
+			}
+			json.append("}}},");
+		}
+		largeTest = json.append("\"id\":[\"d0\",\"d1\",\"d2\"],\"size\":[50,400,3]}}}").toString();
+	}
+
+	private static void assertSameDataset(SSBDataset expected, SSBDataset actual) throws SSBDatasetException {
+		assertEquals(expected.getDs().getValue(), actual.getDs().getValue());
+		assertEquals(expected.getDs().getStatus(), actual.getDs().getStatus());
+		assertEquals(expected.cells(), actual.cells());
+	}
+
+	@Test
+	public void testDirect() throws SSBDatasetException {
+		SSBDataset direct = SSBDataset.builder().valueStorage(ValueStorage.DIRECT).build(ds1052Test);
+		assertSameDataset(heap, direct);
+		assertEquals(4.6, direct.valueAt(0, 0, 9, 1), 0);
+	}
+
+	@Test
+	public void testMapped() throws SSBDatasetException {
+		SSBDataset mapped = SSBDataset.builder().valueStorage(ValueStorage.MAPPED).build(ds1052Test);
+		assertSameDataset(heap, mapped);
+		Map<Integer, Integer> filters = new HashMap<>();
+		filters.put(2, 8);
+		assertEquals(heap.table(1, 3, filters), mapped.table(1, 3, filters));
+	}
+
+	@Test
+	public void testGrowth() throws SSBDatasetException {
+		SSBDataset expected = SSBDataset.builder().lazyCells(true).build(largeTest);
+		for (ValueStorage storage : ValueStorage.values()) {
+			SSBDataset actual = SSBDataset.builder().valueStorage(storage).lazyCells(true).build(largeTest);
+			assertEquals(60000, actual.getDs().getValues().size());
+			assertSameDataset(expected, actual);
+			assertEquals(expected.tableResult(1, 2).toList(ValueFormatter.numberFormat()),
+					actual.tableResult(1, 2).toList(ValueFormatter.numberFormat()));
+		}
+	}
+
+	@Test
+	public void testMappedOffHeap() throws SSBDatasetException {
+		SSBDataset expected = SSBDataset.builder().lazyCells(true).build(largeTest);
+		SSBDataset mapped = SSBDataset.builder().valueStorage(ValueStorage.MAPPED).lazyCells(true).build(largeTest);
+		assertTrue(mapped.estimatedBytes() < expected.estimatedBytes() - 60000 * 8);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullStorage() {
+		SSBDataset.builder().valueStorage(null);
+	}
+
+}